@@ -0,0 +1,82 @@
+package com.arjankleene.astro.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Run the astro benchmarks with the GC profiler and write a summary of the scores.
+ *
+ * The summary has a line per benchmark and parameter with the score, its error, the unit and
+ * the bytes allocated per operation, after a comment with the JVM and the run settings. Each
+ * benchmark runs in three forks.
+ *
+ * Usage: BenchmarkRunner [summary file] [benchmark regexp] [description of the sources]
+ */
+public class BenchmarkRunner {
+
+    private static final int FORKS = 3;
+
+    public static void main(String[] args) throws RunnerException, FileNotFoundException,
+            UnsupportedEncodingException {
+        String summary = args.length > 0 ? args[0] : "results/latest.csv";
+        String include = args.length > 1 ? args[1] : BenchmarkRunner.class.getPackage().getName() + ".*";
+        String description = args.length > 2 ? args[2] : "current sources";
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .forks(FORKS)
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        PrintWriter out = new PrintWriter(summary, "UTF-8");
+        try {
+            write(out, description, results);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void write(PrintWriter out, String description, Collection<RunResult> results) {
+        out.println("# " + description);
+        if (!results.isEmpty()) {
+            BenchmarkParams params = results.iterator().next().getParams();
+            out.println(String.format(Locale.ROOT, "# JMH %s, %s %s, %d processors, %d forks",
+                    params.getJmhVersion(), params.getVmName(), params.getJdkVersion(),
+                    Runtime.getRuntime().availableProcessors(), params.getForks()));
+        }
+        out.println("benchmark,params,score,error,unit,alloc (B/op)");
+
+        String packageName = BenchmarkRunner.class.getPackage().getName() + ".";
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            StringBuilder values = new StringBuilder();
+            for (String key : params.getParamsKeys()) {
+                if (values.length() > 0) {
+                    values.append(' ');
+                }
+                values.append(key).append('=').append(params.getParam(key));
+            }
+
+            Result<?> score = result.getPrimaryResult();
+            Result<?> allocation = result.getSecondaryResults().get("gc.alloc.rate.norm");
+            out.println(String.format(Locale.ROOT, "%s,%s,%.3f,%.3f,%s,%s",
+                    params.getBenchmark().replace(packageName, ""), values, score.getScore(),
+                    score.getScoreError(), score.getScoreUnit(),
+                    allocation == null ? "" : String.format(Locale.ROOT, "%.0f", allocation.getScore())));
+        }
+    }
+}
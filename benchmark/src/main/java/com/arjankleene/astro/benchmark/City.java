@@ -0,0 +1,31 @@
+package com.arjankleene.astro.benchmark;
+
+import java.util.TimeZone;
+
+/**
+ * The locations that are also used in SolarInfoTest.
+ */
+public enum City {
+    AUCKLAND(-36.85, 174.7644727, "Pacific/Auckland"),
+    BERLIN(52.5166667, 13.3811393, "Europe/Berlin"),
+    ENSCHEDE(52.2406295, 6.8854202, "Europe/Amsterdam"),
+    HONOLULU(21.3166667, -157.852194, "Pacific/Honolulu"),
+    LONGYEARBYEN(78.2166667, 15.6311393, "Arctic/Longyearbyen");
+
+    public final double latitude;
+    public final double longitude;
+    public final TimeZone timeZone;
+
+    City(double latitude, double longitude, String timeZone) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.timeZone = TimeZone.getTimeZone(timeZone);
+    }
+
+    /**
+     * Offset of standard time to UTC in seconds.
+     */
+    public int getUtcOffset() {
+        return timeZone.getRawOffset() / 1000;
+    }
+}
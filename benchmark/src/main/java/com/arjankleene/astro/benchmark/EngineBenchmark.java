@@ -0,0 +1,57 @@
+package com.arjankleene.astro.benchmark;
+
+import com.arjankleene.astro.SolarCalculator;
+import com.arjankleene.astro.SolarInfo;
+import com.arjankleene.astro.SolarMath;
+import com.arjankleene.astro.SolarRange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a year of sunrises and sunsets for each {@link SolarCalculator}.
+ *
+ * The accuracy of the engines is reported by {@link EngineComparison}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EngineBenchmark {
+
+    private static final int DAYS = 366;
+
+    @Param({"williams", "table", "noaa"})
+    public String engine;
+
+    @Param({"ENSCHEDE", "LONGYEARBYEN"})
+    public City city;
+
+    private SolarCalculator calculator;
+    private SolarRange range;
+
+    @Setup
+    public void setUp() {
+        calculator = EngineComparison.engine(engine);
+        range = new SolarRange(SolarMath.epochDay(2016, 1, 1), DAYS);
+    }
+
+    @Benchmark
+    public SolarRange year() {
+        SolarInfo.computeRange(city.latitude, city.longitude, SolarInfo.ZENITH_OFFICIAL, city.getUtcOffset(),
+                range, calculator);
+        return range;
+    }
+}
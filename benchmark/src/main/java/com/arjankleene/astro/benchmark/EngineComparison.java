@@ -0,0 +1,170 @@
+package com.arjankleene.astro.benchmark;
+
+import com.arjankleene.astro.SolarCalculator;
+import com.arjankleene.astro.SolarInfo;
+import com.arjankleene.astro.SolarMath;
+import com.arjankleene.astro.SolarRange;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Report the accuracy and cost of each {@link SolarCalculator}.
+ *
+ * The reference is the file of sunrise and sunset times that the tests use as well, written
+ * by {@link NoaaReference}: ten locations from the equator to the polar circle, on sixteen
+ * dates, to the second.
+ *
+ * The cost is a plain timing of {@link SolarCalculator#fillRange}; {@link EngineBenchmark}
+ * measures it with JMH.
+ */
+public class EngineComparison {
+
+    private static final SolarCalculator[] ENGINES = {
+            SolarCalculator.WILLIAMS, SolarCalculator.TABLE, SolarCalculator.NOAA};
+
+    private static final int YEAR = 2016;
+
+    /** The reference times on the class path, from the test folder */
+    private static final String REFERENCE_TIMES = "/com/arjankleene/astro/reference_times.csv";
+
+    public static void main(String[] args) throws IOException {
+        List<Reference> references = references();
+
+        System.out.println(String.format(Locale.ROOT, "%-10s %10s %10s %10s %12s",
+                "engine", "events", "mean (s)", "max (s)", "ns/event"));
+
+        long startDay = SolarMath.epochDay(YEAR, 1, 1);
+        int days = (int) (SolarMath.epochDay(YEAR + 1, 1, 1) - startDay);
+        for (SolarCalculator calculator : ENGINES) {
+            double totalError = 0;
+            double maxError = 0;
+
+            for (Reference reference : references) {
+                double error = Math.abs(reference.error(calculator));
+                totalError += error;
+                maxError = Math.max(maxError, error);
+            }
+
+            System.out.println(String.format(Locale.ROOT, "%-10s %10d %10.1f %10.1f %12.1f",
+                    calculator.getName(), references.size(), totalError / references.size(), maxError,
+                    cost(calculator, startDay, days)));
+        }
+    }
+
+    static SolarCalculator engine(String name) {
+        for (SolarCalculator calculator : ENGINES) {
+            if (calculator.getName().equals(name)) return calculator;
+        }
+        throw new IllegalArgumentException("Unknown engine: " + name);
+    }
+
+    /**
+     * Get the time in nanoseconds per event of a year of events for all cities.
+     */
+    private static double cost(SolarCalculator calculator, long startDay, int days) {
+        SolarRange range = new SolarRange(startDay, days);
+        long checksum = 0;
+        long start = 0;
+        int rounds = 200;
+        // the first half of the rounds is warm-up
+        for (int round = 0; round < 2 * rounds; round++) {
+            if (round == rounds) {
+                start = System.nanoTime();
+            }
+            for (City city : City.values()) {
+                SolarInfo.computeRange(city.latitude, city.longitude, SolarInfo.ZENITH_OFFICIAL,
+                        city.getUtcOffset(), range, calculator);
+                checksum += range.getSunRises()[round % days];
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        if (checksum == 42) {
+            System.out.println();
+        }
+        return (double) nanos / ((long) rounds * City.values().length * days * 2);
+    }
+
+    /**
+     * Read the events of the reference times; dates without an event are left out.
+     */
+    private static List<Reference> references() throws IOException {
+        InputStream in = EngineComparison.class.getResourceAsStream(REFERENCE_TIMES);
+        if (in == null) {
+            throw new FileNotFoundException(REFERENCE_TIMES);
+        }
+
+        List<Reference> references = new ArrayList<Reference>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#")) continue;
+
+                String[] fields = line.split(",");
+                double latitude = Double.parseDouble(fields[1]);
+                double longitude = Double.parseDouble(fields[2]);
+                int utcOffset = Integer.parseInt(fields[3]);
+                long epochDay = parseDate(fields[4]);
+                for (int i = 0; i < 2; i++) {
+                    if (fields[5 + i].equals("-")) continue;
+                    references.add(new Reference(latitude, longitude, utcOffset, epochDay, i == 0,
+                            parseDate(fields[5 + i]) * 86400 + parseSeconds(fields[5 + i])));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return references;
+    }
+
+    /**
+     * Parse the date of 2016-03-09 or 2016-03-09T05:59:21Z to days since 1970-01-01.
+     */
+    private static long parseDate(String text) {
+        return SolarMath.epochDay(Integer.parseInt(text.substring(0, 4)), Integer.parseInt(text.substring(5, 7)),
+                Integer.parseInt(text.substring(8, 10)));
+    }
+
+    /**
+     * Parse the time of day of 2016-03-09T05:59:21Z to seconds.
+     */
+    private static int parseSeconds(String text) {
+        return Integer.parseInt(text.substring(11, 13)) * 3600 + Integer.parseInt(text.substring(14, 16)) * 60
+                + Integer.parseInt(text.substring(17, 19));
+    }
+
+    private static final class Reference {
+        private final double latitude;
+        private final double longitude;
+        private final int utcOffset;
+        private final long epochDay;
+        private final boolean rising;
+        private final long time;
+
+        Reference(double latitude, double longitude, int utcOffset, long epochDay, boolean rising, long time) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.utcOffset = utcOffset;
+            this.epochDay = epochDay;
+            this.rising = rising;
+            this.time = time;
+        }
+
+        /**
+         * Get the seconds by which the calculated event differs from the reference.
+         */
+        double error(SolarCalculator calculator) {
+            long event = rising
+                    ? calculator.sunRise(epochDay, latitude, longitude, SolarInfo.ZENITH_OFFICIAL, utcOffset)
+                    : calculator.sunSet(epochDay, latitude, longitude, SolarInfo.ZENITH_OFFICIAL, utcOffset);
+            return event - time;
+        }
+    }
+}
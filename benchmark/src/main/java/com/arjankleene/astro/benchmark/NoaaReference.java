@@ -0,0 +1,200 @@
+package com.arjankleene.astro.benchmark;
+
+import com.arjankleene.astro.SolarMath;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Write the reference times that {@link EngineComparison} and NoaaCalculatorTest check the
+ * engines against.
+ *
+ * The times follow the procedure of the NOAA solar calculator (gml.noaa.gov/grad/solcalc):
+ * the sun's position is calculated at 00:00 UTC of the date, and the event time found with it
+ * is calculated again with the position at that time. The functions below are those of the
+ * calculator, with the same names, except that the official zenith of 90°50' is used instead
+ * of the calculator's rounded 90.833°. The calculator shows its results to the minute; here
+ * they are given to the second.
+ *
+ * Three things go beyond the calculator. It recalculates the time once, which is enough for
+ * minutes but not near the end of a polar period, so here it is recalculated until it no
+ * longer changes. When the position at 00:00 UTC gives no event, the first estimate is made
+ * at 12:00 UTC instead. And an event that falls just outside the local date, like a sunset
+ * after midnight, is moved onto the date by a day, as the engines do.
+ *
+ * Usage: NoaaReference > test/com/arjankleene/astro/reference_times.csv
+ */
+public class NoaaReference {
+
+    private static final double ZENITH = 90 + 5.0 / 6;
+
+    private static final Object[][] LOCATIONS = {
+            {"quito", -0.1807, -78.4678, -18000},
+            {"singapore", 1.3521, 103.8198, 28800},
+            {"honolulu", 21.3166667, -157.852194, -36000},
+            {"cairo", 30.0444, 31.2357, 7200},
+            {"auckland", -36.85, 174.7644727, 43200},
+            {"enschede", 52.2406295, 6.8854202, 3600},
+            {"berlin", 52.5166667, 13.3811393, 3600},
+            {"ushuaia", -54.8019, -68.303, -10800},
+            {"reykjavik", 64.1466, -21.9426, 0},
+            {"tromso", 69.6492, 18.9553, 3600},
+    };
+
+    private static final int[][] DATES = {
+            {2016, 1, 15}, {2016, 2, 20}, {2016, 3, 20}, {2016, 4, 25}, {2016, 5, 30}, {2016, 6, 21},
+            {2016, 7, 31}, {2016, 9, 5}, {2016, 9, 22}, {2016, 10, 15}, {2016, 11, 20}, {2016, 12, 21},
+            {1990, 6, 25}, {2030, 3, 1}, {2030, 8, 15}, {2045, 12, 1},
+    };
+
+    public static void main(String[] args) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.ROOT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        System.out.println("# Sunrise and sunset after the NOAA solar calculator, see NoaaReference in the benchmarks.");
+        System.out.println("# Times are UTC, to the second; - when the sun does not rise or set on the local date.");
+        System.out.println("# name,latitude,longitude,utc offset (s),local date,sunrise,sunset");
+        for (Object[] location : LOCATIONS) {
+            double latitude = (Double) location[1];
+            double longitude = (Double) location[2];
+            int utcOffset = (Integer) location[3];
+            for (int[] date : DATES) {
+                long epochDay = SolarMath.epochDay(date[0], date[1], date[2]);
+                System.out.println(String.format(Locale.ROOT, "%s,%s,%s,%d,%04d-%02d-%02d,%s,%s",
+                        location[0], location[1], location[2], utcOffset, date[0], date[1], date[2],
+                        format(format, calcSunriseSet(true, epochDay, latitude, longitude, utcOffset)),
+                        format(format, calcSunriseSet(false, epochDay, latitude, longitude, utcOffset))));
+            }
+        }
+    }
+
+    private static String format(SimpleDateFormat format, double epochSecond) {
+        if (Double.isNaN(epochSecond)) return "-";
+        return format.format(new Date(Math.round(epochSecond) * 1000));
+    }
+
+    /**
+     * Get the event of the local date in epoch seconds, or NaN if there is none.
+     */
+    static double calcSunriseSet(boolean rise, long epochDay, double latitude, double longitude, int utcOffset) {
+        double jd = 2440587.5 + epochDay;
+        double timeUTC = calcSunriseSetUTC(rise, jd, latitude, longitude);
+        if (Double.isNaN(timeUTC)) {
+            // at the end of a polar period there may only be an event later in the day
+            timeUTC = calcSunriseSetUTC(rise, jd + 0.5, latitude, longitude) + 720;
+        }
+        double newTimeUTC = timeUTC;
+        for (int i = 0; i < 100; i++) {
+            timeUTC = newTimeUTC;
+            newTimeUTC = calcSunriseSetUTC(rise, jd + timeUTC / 1440.0, latitude, longitude);
+            if (Double.isNaN(newTimeUTC)) return Double.NaN;
+            if (Math.abs(newTimeUTC - timeUTC) < 0.01 / 60) break;
+        }
+
+        // like the engines, an event just outside the local date is moved onto it
+        double local = newTimeUTC * 60 + utcOffset;
+        local -= Math.floor(local / 86400) * 86400;
+        return epochDay * 86400 + local - utcOffset;
+    }
+
+    /**
+     * Get the event in minutes after 00:00 UTC of the Julian day, or NaN in a polar period.
+     */
+    static double calcSunriseSetUTC(boolean rise, double jd, double latitude, double longitude) {
+        double t = calcTimeJulianCent(jd);
+        double eqTime = calcEquationOfTime(t);
+        double solarDec = calcSunDeclination(t);
+        double hourAngle = calcHourAngleSunrise(latitude, solarDec);
+        if (!rise) hourAngle = -hourAngle;
+        double delta = longitude + Math.toDegrees(hourAngle);
+        return 720 - (4.0 * delta) - eqTime;
+    }
+
+    static double calcTimeJulianCent(double jd) {
+        return (jd - 2451545.0) / 36525.0;
+    }
+
+    static double calcGeomMeanLongSun(double t) {
+        double l0 = 280.46646 + t * (36000.76983 + t * 0.0003032);
+        while (l0 > 360.0) {
+            l0 -= 360.0;
+        }
+        while (l0 < 0.0) {
+            l0 += 360.0;
+        }
+        return l0;
+    }
+
+    static double calcGeomMeanAnomalySun(double t) {
+        return 357.52911 + t * (35999.05029 - 0.0001537 * t);
+    }
+
+    static double calcEccentricityEarthOrbit(double t) {
+        return 0.016708634 - t * (0.000042037 + 0.0000001267 * t);
+    }
+
+    static double calcSunEqOfCenter(double t) {
+        double mrad = Math.toRadians(calcGeomMeanAnomalySun(t));
+        return Math.sin(mrad) * (1.914602 - t * (0.004817 + 0.000014 * t))
+                + Math.sin(mrad + mrad) * (0.019993 - 0.000101 * t)
+                + Math.sin(mrad + mrad + mrad) * 0.000289;
+    }
+
+    static double calcSunTrueLong(double t) {
+        return calcGeomMeanLongSun(t) + calcSunEqOfCenter(t);
+    }
+
+    static double calcSunApparentLong(double t) {
+        double omega = 125.04 - 1934.136 * t;
+        return calcSunTrueLong(t) - 0.00569 - 0.00478 * Math.sin(Math.toRadians(omega));
+    }
+
+    static double calcMeanObliquityOfEcliptic(double t) {
+        double seconds = 21.448 - t * (46.8150 + t * (0.00059 - t * 0.001813));
+        return 23.0 + (26.0 + (seconds / 60.0)) / 60.0;
+    }
+
+    static double calcObliquityCorrection(double t) {
+        double omega = 125.04 - 1934.136 * t;
+        return calcMeanObliquityOfEcliptic(t) + 0.00256 * Math.cos(Math.toRadians(omega));
+    }
+
+    static double calcSunDeclination(double t) {
+        double sint = Math.sin(Math.toRadians(calcObliquityCorrection(t)))
+                * Math.sin(Math.toRadians(calcSunApparentLong(t)));
+        return Math.toDegrees(Math.asin(sint));
+    }
+
+    static double calcEquationOfTime(double t) {
+        double epsilon = calcObliquityCorrection(t);
+        double l0 = calcGeomMeanLongSun(t);
+        double e = calcEccentricityEarthOrbit(t);
+        double m = calcGeomMeanAnomalySun(t);
+
+        double y = Math.tan(Math.toRadians(epsilon) / 2.0);
+        y *= y;
+
+        double sin2l0 = Math.sin(2.0 * Math.toRadians(l0));
+        double sinm = Math.sin(Math.toRadians(m));
+        double cos2l0 = Math.cos(2.0 * Math.toRadians(l0));
+        double sin4l0 = Math.sin(4.0 * Math.toRadians(l0));
+        double sin2m = Math.sin(2.0 * Math.toRadians(m));
+
+        double eTime = y * sin2l0 - 2.0 * e * sinm + 4.0 * e * y * sinm * cos2l0
+                - 0.5 * y * y * sin4l0 - 1.25 * e * e * sin2m;
+        return Math.toDegrees(eTime) * 4.0;
+    }
+
+    /**
+     * Get the hour angle of sunrise in radians, or NaN if the sun does not cross the zenith.
+     */
+    static double calcHourAngleSunrise(double lat, double solarDec) {
+        double latRad = Math.toRadians(lat);
+        double sdRad = Math.toRadians(solarDec);
+        double haArg = Math.cos(Math.toRadians(ZENITH)) / (Math.cos(latRad) * Math.cos(sdRad))
+                - Math.tan(latRad) * Math.tan(sdRad);
+        return Math.acos(haArg);
+    }
+}
@@ -0,0 +1,80 @@
+package com.arjankleene.astro.benchmark;
+
+import com.arjankleene.astro.SolarInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of sunrise and sunset through the calendars of {@link SolarInfo}, for one date and for
+ * every day of a year.
+ *
+ * Only the constructor and getters of the original SolarInfo are used, so this class also
+ * compiles against the baseline commit; see the baseline profile in the pom.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SolarInfoBenchmark {
+
+    @Param({"ENSCHEDE", "AUCKLAND", "LONGYEARBYEN"})
+    public City city;
+
+    private GregorianCalendar date;
+    private SolarInfo info;
+
+    @Setup
+    public void setUp() {
+        date = new GregorianCalendar(city.timeZone);
+        date.set(2016, Calendar.MARCH, 9, 12, 0, 0);
+        info = new SolarInfo(date, city.latitude, city.longitude);
+    }
+
+    @Benchmark
+    public SolarInfo construct() {
+        return new SolarInfo(date, city.latitude, city.longitude);
+    }
+
+    @Benchmark
+    public void constructAndGetTimes(Blackhole blackhole) {
+        SolarInfo info = new SolarInfo(date, city.latitude, city.longitude);
+        blackhole.consume(info.getSunRise());
+        blackhole.consume(info.getSunSet());
+    }
+
+    @Benchmark
+    public void getTimes(Blackhole blackhole) {
+        blackhole.consume(info.getSunRise());
+        blackhole.consume(info.getSunSet());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void year(Blackhole blackhole) {
+        GregorianCalendar day = new GregorianCalendar(city.timeZone);
+        day.set(2016, Calendar.JANUARY, 1, 12, 0, 0);
+
+        for (int i = 0; i < 366; i++) {
+            SolarInfo info = new SolarInfo(day, city.latitude, city.longitude);
+            blackhole.consume(info.getSunRise());
+            blackhole.consume(info.getSunSet());
+            day.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.arjankleene.astro.benchmark;
+
+import com.arjankleene.astro.SolarInfo;
+import com.arjankleene.astro.SolarMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single sunrise/sunset calculation for one date with the {@link SolarMath} kernel.
+ *
+ * {@link SolarInfoBenchmark} measures the same date through the calendars of {@link SolarInfo}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SolarMathBenchmark {
+
+    @Param({"ENSCHEDE", "AUCKLAND", "LONGYEARBYEN"})
+    public City city;
+
+    private long epochDay;
+
+    @Setup
+    public void setUp() {
+        epochDay = SolarMath.epochDay(2016, 3, 9);
+    }
+
+    @Benchmark
+    public void kernel(Blackhole blackhole) {
+        blackhole.consume(SolarMath.sunRise(epochDay, city.latitude, city.longitude, SolarInfo.ZENITH_OFFICIAL,
+                city.getUtcOffset()));
+        blackhole.consume(SolarMath.sunSet(epochDay, city.latitude, city.longitude, SolarInfo.ZENITH_OFFICIAL,
+                city.getUtcOffset()));
+    }
+}
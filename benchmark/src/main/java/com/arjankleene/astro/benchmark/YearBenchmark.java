@@ -0,0 +1,87 @@
+package com.arjankleene.astro.benchmark;
+
+import com.arjankleene.astro.SolarCache;
+import com.arjankleene.astro.SolarInfo;
+import com.arjankleene.astro.SolarMath;
+import com.arjankleene.astro.SolarRange;
+import com.arjankleene.astro.SolarTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of sunrise and sunset for every day of a year, one location per invocation.
+ *
+ * {@link SolarInfoBenchmark#year} is the same loop through the calendars of SolarInfo, which is
+ * the baseline that these are compared to.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class YearBenchmark {
+
+    private static final int DAYS = 366;
+
+    @Param({"ENSCHEDE", "AUCKLAND", "BERLIN", "HONOLULU", "LONGYEARBYEN"})
+    public City city;
+
+    private long startDay;
+    private SolarRange range;
+    private SolarCache cache;
+
+    @Setup
+    public void setUp() {
+        startDay = SolarMath.epochDay(2016, 1, 1);
+        range = new SolarRange(startDay, DAYS);
+
+        cache = new SolarCache(DAYS, 0.01);
+        for (int i = 0; i < DAYS; i++) {
+            cache.get(startDay + i, city.latitude, city.longitude, SolarInfo.ZENITH_OFFICIAL, city.getUtcOffset());
+        }
+    }
+
+    @Benchmark
+    public void kernel(Blackhole blackhole) {
+        for (int i = 0; i < DAYS; i++) {
+            blackhole.consume(SolarMath.sunRise(startDay + i, city.latitude, city.longitude,
+                    SolarInfo.ZENITH_OFFICIAL, city.getUtcOffset()));
+            blackhole.consume(SolarMath.sunSet(startDay + i, city.latitude, city.longitude,
+                    SolarInfo.ZENITH_OFFICIAL, city.getUtcOffset()));
+        }
+    }
+
+    @Benchmark
+    public SolarRange computeRange() {
+        SolarInfo.computeRange(city.latitude, city.longitude, SolarInfo.ZENITH_OFFICIAL, city.getUtcOffset(), range);
+        return range;
+    }
+
+    @Benchmark
+    public SolarRange table() {
+        SolarTable.fillRange(city.latitude, city.longitude, startDay, DAYS, SolarInfo.ZENITH_OFFICIAL,
+                city.getUtcOffset(), range.getSunRises(), range.getSunSets(), range.getStates());
+        return range;
+    }
+
+    @Benchmark
+    public void cacheHits(Blackhole blackhole) {
+        for (int i = 0; i < DAYS; i++) {
+            blackhole.consume(cache.get(startDay + i, city.latitude, city.longitude, SolarInfo.ZENITH_OFFICIAL,
+                    city.getUtcOffset()));
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.arjankleene.astro;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Memory-mapped reader for the binary almanac files written by {@link AlmanacWriter}.
+ *
+ * File format, all values big-endian:
+ * <pre>
+ * header   int magic "ALMN", short version, short reserved,
+ *          long start epoch day, int days, int station count, int zenith count, int reserved
+ * zeniths  double per zenith
+ * stations per station: double latitude, double longitude, int utc offset in seconds,
+ *          short id length, id in UTF-8 padded to 34 bytes
+ * events   per station, per day, per zenith: short sunrise, short sunset
+ * </pre>
+ * Events are stored as minutes since UTC midnight of the day, rounded to the nearest minute,
+ * with {@link Short#MAX_VALUE} for up all day and {@link Short#MIN_VALUE} for down all day.
+ *
+ * Every lookup is a single read from the mapped file, nothing is copied or allocated.
+ */
+public class Almanac {
+
+    static final int MAGIC = 0x414C4D4E;
+    static final short VERSION = 1;
+
+    static final int HEADER_SIZE = 32;
+    static final int STATION_SIZE = 56;
+    static final int MAX_ID_LENGTH = 34;
+    /** Sunrise and sunset as shorts */
+    static final int EVENT_SIZE = 4;
+
+    static final short UP_ALL_DAY = Short.MAX_VALUE;
+    static final short DOWN_ALL_DAY = Short.MIN_VALUE;
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final int version;
+    private final long startDay;
+    private final int days;
+    private final double[] zeniths;
+    private final Station[] stations;
+    private final Map<String, Integer> stationIndex;
+
+    private final int stationBlockSize;
+    private final int stationsPerSegment;
+    private final MappedByteBuffer[] segments;
+
+    private Almanac(int version, long startDay, int days, double[] zeniths, Station[] stations,
+                    MappedByteBuffer[] segments, int stationsPerSegment) {
+        this.version = version;
+        this.startDay = startDay;
+        this.days = days;
+        this.zeniths = zeniths;
+        this.stations = stations;
+        this.segments = segments;
+        this.stationsPerSegment = stationsPerSegment;
+        this.stationBlockSize = days * zeniths.length * EVENT_SIZE;
+
+        stationIndex = new HashMap<String, Integer>();
+        for (int i = 0; i < stations.length; i++) {
+            stationIndex.put(stations[i].getId(), i);
+        }
+    }
+
+    /**
+     * Open and map an almanac file.
+     *
+     * The file is only read for the header and station index, the events are mapped.
+     */
+    public static Almanac open(File file) throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = input.getChannel();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not an almanac file: " + file);
+            }
+            int version = header.getShort(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported almanac version " + version + " in " + file);
+            }
+            long startDay = header.getLong(8);
+            int days = header.getInt(16);
+            int stationCount = header.getInt(20);
+            int zenithCount = header.getInt(24);
+
+            ByteBuffer index = ByteBuffer.allocate(zenithCount * 8 + stationCount * STATION_SIZE);
+            readFully(channel, index, HEADER_SIZE);
+
+            double[] zeniths = new double[zenithCount];
+            for (int i = 0; i < zenithCount; i++) {
+                zeniths[i] = index.getDouble();
+            }
+
+            Station[] stations = new Station[stationCount];
+            byte[] id = new byte[MAX_ID_LENGTH];
+            for (int i = 0; i < stationCount; i++) {
+                double latitude = index.getDouble();
+                double longitude = index.getDouble();
+                int utcOffset = index.getInt();
+                int idLength = index.getShort();
+                index.get(id);
+                stations[i] = new Station(new String(id, 0, idLength, UTF_8), latitude, longitude, utcOffset);
+            }
+
+            long dataOffset = HEADER_SIZE + index.capacity();
+            long stationBlockSize = (long) days * zenithCount * EVENT_SIZE;
+            if (stationBlockSize > Integer.MAX_VALUE) {
+                throw new IOException("Too many days in " + file);
+            }
+            if (channel.size() < dataOffset + stationBlockSize * stationCount) {
+                throw new IOException("Truncated almanac file: " + file);
+            }
+
+            // a single mapping can not exceed 2GB, so the stations are spread over segments
+            int stationsPerSegment = stationBlockSize == 0
+                    ? Math.max(1, stationCount)
+                    : (int) Math.max(1, Integer.MAX_VALUE / stationBlockSize);
+            int segmentCount = stationCount == 0 ? 0 : (stationCount - 1) / stationsPerSegment + 1;
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                int stationsInSegment = Math.min(stationsPerSegment, stationCount - i * stationsPerSegment);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        dataOffset + i * stationsPerSegment * stationBlockSize,
+                        stationsInSegment * stationBlockSize);
+            }
+
+            return new Almanac(version, startDay, days, zeniths, stations, segments, stationsPerSegment);
+        } finally {
+            input.close();
+        }
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public long getStartDay() {
+        return startDay;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public double[] getZeniths() {
+        return zeniths.clone();
+    }
+
+    public int getStationCount() {
+        return stations.length;
+    }
+
+    public Station getStation(int station) {
+        return stations[station];
+    }
+
+    /**
+     * Get the index of the station with the given id, or -1 if it is not in the almanac.
+     */
+    public int indexOf(String id) {
+        Integer station = stationIndex.get(id);
+        return station == null ? -1 : station;
+    }
+
+    /**
+     * Get the index of the given zenith, or -1 if it is not in the almanac.
+     */
+    public int indexOfZenith(double zenith) {
+        for (int i = 0; i < zeniths.length; i++) {
+            if (zeniths[i] == zenith) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the sunrise in epoch seconds, or one of the polar sentinel values of {@link SolarMath}.
+     *
+     * @param epochDay the local date of the station as days since 1970-01-01
+     */
+    public long getSunRise(int station, long epochDay, int zenith) {
+        return decode(epochDay, read(station, epochDay, zenith, 0));
+    }
+
+    /**
+     * Get the sunset in epoch seconds, or one of the polar sentinel values of {@link SolarMath}.
+     *
+     * @param epochDay the local date of the station as days since 1970-01-01
+     */
+    public long getSunSet(int station, long epochDay, int zenith) {
+        return decode(epochDay, read(station, epochDay, zenith, 2));
+    }
+
+    private short read(int station, long epochDay, int zenith, int offset) {
+        long day = epochDay - startDay;
+        if (day < 0 || day >= days) {
+            throw new IllegalArgumentException("Day " + epochDay + " is not in the almanac");
+        }
+        if (zenith < 0 || zenith >= zeniths.length) {
+            throw new IllegalArgumentException("Invalid zenith index: " + zenith);
+        }
+
+        MappedByteBuffer segment = segments[station / stationsPerSegment];
+        int position = (station % stationsPerSegment) * stationBlockSize
+                + ((int) day * zeniths.length + zenith) * EVENT_SIZE + offset;
+        return segment.getShort(position);
+    }
+
+    /**
+     * Convert an epoch second to the stored representation.
+     */
+    static short encode(long epochDay, long event) {
+        if (event == SolarMath.UP_ALL_DAY) return UP_ALL_DAY;
+        if (event == SolarMath.DOWN_ALL_DAY) return DOWN_ALL_DAY;
+
+        return (short) SolarMath.floorDiv(event - epochDay * SolarMath.SECONDS_PER_DAY + 30, 60);
+    }
+
+    static long decode(long epochDay, short minutes) {
+        if (minutes == UP_ALL_DAY) return SolarMath.UP_ALL_DAY;
+        if (minutes == DOWN_ALL_DAY) return SolarMath.DOWN_ALL_DAY;
+
+        return epochDay * SolarMath.SECONDS_PER_DAY + minutes * 60;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of almanac file");
+            }
+        }
+        buffer.flip();
+    }
+}
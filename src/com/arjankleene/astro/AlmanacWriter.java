@@ -0,0 +1,103 @@
+package com.arjankleene.astro;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * Write precomputed sunrise and sunset tables in the binary almanac format.
+ *
+ * The format is described in {@link Almanac}. Events are calculated with {@link SolarMath},
+ * one station at a time, so memory use only depends on the number of days and zeniths.
+ */
+public class AlmanacWriter {
+
+    private AlmanacWriter() {
+    }
+
+    /**
+     * @param startDay the first local date as days since 1970-01-01
+     */
+    public static void write(File file, long startDay, int days, double[] zeniths, List<Station> stations)
+            throws IOException {
+        if (days < 0) {
+            throw new IllegalArgumentException("Number of days must not be negative: " + days);
+        }
+        if ((long) days * zeniths.length * Almanac.EVENT_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many days for a single station: " + days);
+        }
+
+        FileOutputStream output = new FileOutputStream(file);
+        try {
+            FileChannel channel = output.getChannel();
+
+            writeFully(channel, header(startDay, days, zeniths, stations));
+
+            long[] sunrises = new long[days];
+            long[] sunsets = new long[days];
+            byte[] states = new byte[days];
+            ByteBuffer block = ByteBuffer.allocate(days * zeniths.length * Almanac.EVENT_SIZE);
+
+            for (Station station : stations) {
+                block.clear();
+                for (int zenith = 0; zenith < zeniths.length; zenith++) {
+                    SolarMath.fillRange(station.getLatitude(), station.getLongitude(), startDay, days,
+                            zeniths[zenith], station.getUtcOffset(), sunrises, sunsets, states);
+
+                    for (int day = 0; day < days; day++) {
+                        int position = (day * zeniths.length + zenith) * Almanac.EVENT_SIZE;
+                        block.putShort(position, Almanac.encode(startDay + day, sunrises[day]));
+                        block.putShort(position + 2, Almanac.encode(startDay + day, sunsets[day]));
+                    }
+                }
+                writeFully(channel, block);
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    private static ByteBuffer header(long startDay, int days, double[] zeniths, List<Station> stations) {
+        ByteBuffer header = ByteBuffer.allocate(Almanac.HEADER_SIZE + zeniths.length * 8
+                + stations.size() * Almanac.STATION_SIZE);
+
+        header.putInt(Almanac.MAGIC);
+        header.putShort(Almanac.VERSION);
+        header.putShort((short) 0);
+        header.putLong(startDay);
+        header.putInt(days);
+        header.putInt(stations.size());
+        header.putInt(zeniths.length);
+        header.putInt(0);
+
+        for (double zenith : zeniths) {
+            header.putDouble(zenith);
+        }
+
+        for (Station station : stations) {
+            byte[] id = station.getId().getBytes(Almanac.UTF_8);
+            if (id.length > Almanac.MAX_ID_LENGTH) {
+                throw new IllegalArgumentException("Station id is too long: " + station.getId());
+            }
+            header.putDouble(station.getLatitude());
+            header.putDouble(station.getLongitude());
+            header.putInt(station.getUtcOffset());
+            header.putShort((short) id.length);
+            header.put(id);
+            header.position(header.position() + Almanac.MAX_ID_LENGTH - id.length);
+        }
+
+        header.flip();
+        return header;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.rewind();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.arjankleene.astro;
+
+/**
+ * Daylight statistics of a station over a calendar year.
+ *
+ * Day lengths and twilight durations are in seconds. Event times are epoch seconds; the
+ * earliest sunrise and latest sunset compare the local time of day.
+ *
+ * Instances are immutable.
+ */
+public final class AnnualSummary {
+
+    /** Value of an event or date when the year has none, e.g. no sunrise in the polar regions */
+    public static final long NOT_FOUND = Long.MAX_VALUE;
+
+    private final Station station;
+    private final int year;
+    private final int days;
+    private final long totalDaylight;
+    private final long shortestDay;
+    private final int shortestDayLength;
+    private final long longestDay;
+    private final int longestDayLength;
+    private final long earliestSunRise;
+    private final long latestSunSet;
+    private final long civilTwilight;
+    private final long nauticalTwilight;
+    private final long astronomicalTwilight;
+    private final int upAllDays;
+    private final int downAllDays;
+
+    AnnualSummary(Station station, int year, int days, long totalDaylight,
+                  long shortestDay, int shortestDayLength, long longestDay, int longestDayLength,
+                  long earliestSunRise, long latestSunSet,
+                  long civilTwilight, long nauticalTwilight, long astronomicalTwilight,
+                  int upAllDays, int downAllDays) {
+        this.station = station;
+        this.year = year;
+        this.days = days;
+        this.totalDaylight = totalDaylight;
+        this.shortestDay = shortestDay;
+        this.shortestDayLength = shortestDayLength;
+        this.longestDay = longestDay;
+        this.longestDayLength = longestDayLength;
+        this.earliestSunRise = earliestSunRise;
+        this.latestSunSet = latestSunSet;
+        this.civilTwilight = civilTwilight;
+        this.nauticalTwilight = nauticalTwilight;
+        this.astronomicalTwilight = astronomicalTwilight;
+        this.upAllDays = upAllDays;
+        this.downAllDays = downAllDays;
+    }
+
+    public Station getStation() {
+        return station;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * Number of days in the year.
+     */
+    public int getDays() {
+        return days;
+    }
+
+    /**
+     * Sum of the day lengths, from sunrise to sunset, over the year.
+     */
+    public long getTotalDaylight() {
+        return totalDaylight;
+    }
+
+    /**
+     * The first date with the shortest day, as days since 1970-01-01.
+     */
+    public long getShortestDay() {
+        return shortestDay;
+    }
+
+    public int getShortestDayLength() {
+        return shortestDayLength;
+    }
+
+    /**
+     * The first date with the longest day, as days since 1970-01-01.
+     */
+    public long getLongestDay() {
+        return longestDay;
+    }
+
+    public int getLongestDayLength() {
+        return longestDayLength;
+    }
+
+    /**
+     * The sunrise that is earliest in local time, or {@link #NOT_FOUND}.
+     */
+    public long getEarliestSunRise() {
+        return earliestSunRise;
+    }
+
+    /**
+     * The sunset that is latest in local time, or {@link #NOT_FOUND}.
+     */
+    public long getLatestSunSet() {
+        return latestSunSet;
+    }
+
+    /**
+     * Total of morning and evening civil twilight over the year.
+     */
+    public long getCivilTwilight() {
+        return civilTwilight;
+    }
+
+    /**
+     * Total of morning and evening nautical twilight, after civil twilight, over the year.
+     */
+    public long getNauticalTwilight() {
+        return nauticalTwilight;
+    }
+
+    /**
+     * Total of morning and evening astronomical twilight, after nautical twilight, over the year.
+     */
+    public long getAstronomicalTwilight() {
+        return astronomicalTwilight;
+    }
+
+    /**
+     * Number of days on which the sun does not set.
+     */
+    public int getUpAllDays() {
+        return upAllDays;
+    }
+
+    /**
+     * Number of days on which the sun does not rise.
+     */
+    public int getDownAllDays() {
+        return downAllDays;
+    }
+
+    @Override
+    public String toString() {
+        return "AnnualSummary{station=" + station.getId() + ", year=" + year
+                + ", totalDaylight=" + totalDaylight
+                + ", shortestDayLength=" + shortestDayLength + ", longestDayLength=" + longestDayLength
+                + ", earliestSunRise=" + earliestSunRise + ", latestSunSet=" + latestSunSet
+                + ", civilTwilight=" + civilTwilight + ", nauticalTwilight=" + nauticalTwilight
+                + ", astronomicalTwilight=" + astronomicalTwilight
+                + ", upAllDays=" + upAllDays + ", downAllDays=" + downAllDays + "}";
+    }
+}
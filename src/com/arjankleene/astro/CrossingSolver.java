@@ -0,0 +1,206 @@
+package com.arjankleene.astro;
+
+/**
+ * Find the times at which the sun crosses arbitrary elevations, like 6 degrees for the golden hour.
+ *
+ * The sun's elevation rises monotonically from solar midnight to solar noon and falls again
+ * until the next midnight, so each half of the day brackets at most one crossing. Within
+ * that bracket, Newton iterations drive the sun's hour angle to the one that
+ * {@link SolarMath#getCosH} gives for the elevation, at the declination of the current
+ * estimate. The hour angle changes by 15 degrees an hour, which is the derivative used.
+ * Steps that leave the bracket fall back to bisection.
+ *
+ * Crossings are given for the solar day around the mean solar noon of the local date, as
+ * epoch seconds. If the sun stays above or below an elevation for that half of the day,
+ * the result is one of the polar sentinel values of {@link SolarMath}.
+ *
+ * Instances are not thread-safe.
+ */
+public class CrossingSolver {
+
+    private static final int MAX_ITERATIONS = 30;
+    /** Convergence in hours, a tenth of a second */
+    private static final double PRECISION = 0.1 / 3600;
+
+    private final double lngHour;
+    private final double sinLatitude;
+    private final double cosLatitude;
+
+    private int iterations;
+
+    // values of the last position calculation
+    private double sinDec;
+    private double cosDec;
+    private double hourAngle;
+
+    public CrossingSolver(double latitude, double longitude) {
+        this.lngHour = longitude / 15;
+        this.sinLatitude = SolarMath.sind(latitude);
+        this.cosLatitude = SolarMath.cosd(latitude);
+    }
+
+    /**
+     * Find the crossings of the given elevations on a single date.
+     *
+     * @param epochDay   the local date as days since 1970-01-01
+     * @param elevations elevations above the horizon in degrees
+     * @param rising     receives the time the sun rises through each elevation
+     * @param setting    receives the time the sun sets through each elevation
+     */
+    public void solve(long epochDay, double[] elevations, long[] rising, long[] setting) {
+        solveRange(epochDay, 1, elevations, rising, setting);
+    }
+
+    /**
+     * Find the crossings of the given elevations on a range of consecutive dates.
+     *
+     * The results are stored per date and then per elevation, at index
+     * {@code day * elevations.length + elevation}. Each day starts from the solution of
+     * the previous day, which usually converges in one or two iterations.
+     */
+    public void solveRange(long startDay, int days, double[] elevations, long[] rising, long[] setting) {
+        int count = days * elevations.length;
+        if (days < 0) {
+            throw new IllegalArgumentException("Number of days must not be negative: " + days);
+        }
+        if (rising.length < count || setting.length < count) {
+            throw new IllegalArgumentException("Result arrays must hold at least " + count + " crossings");
+        }
+
+        double[] sinElevations = new double[elevations.length];
+        double[] risingGuesses = new double[elevations.length];
+        double[] settingGuesses = new double[elevations.length];
+        for (int i = 0; i < elevations.length; i++) {
+            sinElevations[i] = SolarMath.sind(elevations[i]);
+            risingGuesses[i] = Double.NaN;
+            settingGuesses[i] = Double.NaN;
+        }
+
+        int year = SolarMath.year(startDay);
+        int dayOfYear = (int) (startDay - SolarMath.epochDay(year, 1, 1)) + 1;
+        long nextYearStart = SolarMath.epochDay(year + 1, 1, 1);
+
+        long epochDay = startDay;
+        for (int day = 0, index = 0; day < days; day++, epochDay++, dayOfYear++) {
+            if (epochDay == nextYearStart) {
+                dayOfYear = 1;
+                nextYearStart = SolarMath.epochDay(++year + 1, 1, 1);
+            }
+
+            double noon = 12 - lngHour;
+            for (int i = 0; i < elevations.length; i++, index++) {
+                double rise = crossing(true, dayOfYear, noon, sinElevations[i], risingGuesses[i]);
+                double set = crossing(false, dayOfYear, noon, sinElevations[i], settingGuesses[i]);
+
+                // a polar day does not give a useful start for the next one
+                risingGuesses[i] = Double.isInfinite(rise) ? Double.NaN : rise;
+                settingGuesses[i] = Double.isInfinite(set) ? Double.NaN : set;
+
+                rising[index] = toEpochSecond(epochDay, rise);
+                setting[index] = toEpochSecond(epochDay, set);
+            }
+        }
+    }
+
+    /**
+     * Total number of Newton or bisection iterations done by this solver.
+     */
+    int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Find a single crossing.
+     *
+     * @param noon  mean solar noon in UTC hours
+     * @param guess start value in UTC hours, or NaN to start from the hour angle at noon
+     * @return the crossing in UTC hours relative to the date, or one of the polar values
+     */
+    private double crossing(boolean rising, int dayOfYear, double noon, double sinElevation, double guess) {
+        double low = rising ? noon - 12 : noon;
+        double high = rising ? noon : noon + 12;
+
+        // the bracket must contain a change of sign
+        double atLow = position(dayOfYear, low) - sinElevation;
+        double atHigh = position(dayOfYear, high) - sinElevation;
+        double atNoon = rising ? atHigh : atLow;
+        double atMidnight = rising ? atLow : atHigh;
+        if (atNoon < 0) return SolarMath.POLAR_DOWN;
+        if (atMidnight > 0) return SolarMath.POLAR_UP;
+
+        double x = guess;
+        if (!(x > low && x < high)) {
+            // start from the hour angle for the declination at noon
+            position(dayOfYear, noon);
+            double cosH = clamp(SolarMath.getCosH(sinDec, cosDec, sinElevation, sinLatitude, cosLatitude));
+            double h = SolarMath.acosd(cosH) / 15;
+            x = rising ? noon - h : noon + h;
+        }
+
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            iterations++;
+
+            double difference = position(dayOfYear, x) - sinElevation;
+            if ((difference < 0) == rising) {
+                low = x;
+            } else {
+                high = x;
+            }
+
+            double cosH = clamp(SolarMath.getCosH(sinDec, cosDec, sinElevation, sinLatitude, cosLatitude));
+            double target = SolarMath.acosd(cosH);
+            if (rising) {
+                target = -target;
+            }
+            double step = (target - normalize(hourAngle)) / 15;
+
+            double next = x + step;
+            if (!(next > low && next < high)) {
+                next = (low + high) / 2;
+            }
+            if (Math.abs(next - x) < PRECISION) {
+                return next;
+            }
+            x = next;
+        }
+        return x;
+    }
+
+    /**
+     * Calculate the sun's declination and hour angle at a UTC hour of the date.
+     *
+     * @return the sine of the sun's elevation
+     */
+    private double position(int dayOfYear, double utcHours) {
+        double t = dayOfYear + utcHours / 24;
+
+        double sunLongitude = SolarMath.getSunLongitude(t);
+        sinDec = SolarMath.getSinDeclination(sunLongitude);
+        cosDec = SolarMath.getCosDeclination(sinDec);
+        hourAngle = SolarMath.getHourAngle(utcHours + lngHour, SolarMath.getRightAscension(sunLongitude), t);
+
+        return sinLatitude * sinDec + cosLatitude * cosDec * SolarMath.cosd(hourAngle);
+    }
+
+    private static long toEpochSecond(long epochDay, double utcHours) {
+        if (utcHours == SolarMath.POLAR_UP) return SolarMath.UP_ALL_DAY;
+        if (utcHours == SolarMath.POLAR_DOWN) return SolarMath.DOWN_ALL_DAY;
+
+        return epochDay * SolarMath.SECONDS_PER_DAY + (long) Math.floor(utcHours * 3600);
+    }
+
+    /**
+     * Normalize an angle in degrees to [-180, 180).
+     */
+    private static double normalize(double angle) {
+        angle = (angle + 180) % 360;
+        if (angle < 0) {
+            angle += 360;
+        }
+        return angle - 180;
+    }
+
+    private static double clamp(double cosH) {
+        return Math.max(-1, Math.min(1, cosH));
+    }
+}
@@ -0,0 +1,196 @@
+package com.arjankleene.astro;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Calculate sunrise, sunset and day length for every cell of a latitude/longitude grid.
+ *
+ * The results are stored in flat arrays in row-major order: the value for a cell is found at
+ * index {@code row * getColumns() + column}. Row 0 is the southern edge of the bounding box,
+ * column 0 the western edge. A bounding box with a western edge east of the eastern edge
+ * crosses the antimeridian.
+ *
+ * Rows are spread over a fork-join pool; each row only writes its own part of the arrays.
+ * Event times are epoch seconds on the UTC date, or one of the polar sentinel values of
+ * {@link SolarMath}.
+ */
+public class DaylightGrid {
+
+    /** Minimum number of cells that a single task calculates */
+    private static final int CELLS_PER_TASK = 2048;
+
+    private final double south;
+    private final double west;
+    private final double resolution;
+    private final int rows;
+    private final int columns;
+
+    private final long[] sunRises;
+    private final long[] sunSets;
+    private final int[] dayLengths;
+
+    /**
+     * @param resolution the distance between grid cells in degrees
+     */
+    public DaylightGrid(double south, double west, double north, double east, double resolution) {
+        if (!(resolution > 0)) {
+            throw new IllegalArgumentException("Resolution must be positive: " + resolution);
+        }
+        if (south < -90 || north > 90 || south > north) {
+            throw new IllegalArgumentException("Invalid latitude range: " + south + " to " + north);
+        }
+
+        double width = east - west;
+        if (width < 0) {
+            width += 360;
+        }
+
+        this.south = south;
+        this.west = west;
+        this.resolution = resolution;
+        this.rows = (int) Math.floor((north - south) / resolution + 1e-9) + 1;
+        this.columns = (int) Math.floor(width / resolution + 1e-9) + 1;
+
+        int cells = rows * columns;
+        sunRises = new long[cells];
+        sunSets = new long[cells];
+        dayLengths = new int[cells];
+    }
+
+    /**
+     * Calculate all cells for the given UTC date, using a shared fork-join pool.
+     */
+    public void compute(long epochDay, double zenith) {
+        compute(epochDay, zenith, DefaultPool.INSTANCE);
+    }
+
+    /**
+     * Calculate all cells for the given UTC date in the given pool.
+     */
+    public void compute(long epochDay, double zenith, ForkJoinPool pool) {
+        long start = SolarInstrumentation.start();
+        pool.invoke(new RowsTask(epochDay, SolarMath.dayOfYear(epochDay), SolarMath.cosd(zenith), 0, rows));
+        SolarInstrumentation.bulk(start, sunSets, sunSets.length);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public double getLatitude(int row) {
+        return south + row * resolution;
+    }
+
+    /**
+     * Get the longitude of a column, normalized to [-180, 180).
+     */
+    public double getLongitude(int column) {
+        double longitude = west + column * resolution;
+        if (longitude >= 180) {
+            longitude -= 360;
+        }
+        return longitude;
+    }
+
+    public long[] getSunRises() {
+        return sunRises;
+    }
+
+    public long[] getSunSets() {
+        return sunSets;
+    }
+
+    /**
+     * Day lengths in seconds; 0 for polar night and a full day for polar day.
+     */
+    public int[] getDayLengths() {
+        return dayLengths;
+    }
+
+    private void computeRow(int row, long epochDay, int dayOfYear, double cosZenith) {
+        double latitude = getLatitude(row);
+        double sinLatitude = SolarMath.sind(latitude);
+        double cosLatitude = SolarMath.cosd(latitude);
+
+        int index = row * columns;
+        for (int column = 0; column < columns; column++, index++) {
+            double lngHour = getLongitude(column) / 15;
+
+            double rise = SolarMath.riseUtc(dayOfYear, lngHour, cosZenith, sinLatitude, cosLatitude);
+            double set = SolarMath.setUtc(dayOfYear, lngHour, cosZenith, sinLatitude, cosLatitude);
+
+            sunRises[index] = SolarMath.toEpochSecond(epochDay, rise, 0);
+            sunSets[index] = SolarMath.toEpochSecond(epochDay, set, 0);
+            dayLengths[index] = dayLength(rise, set, lngHour);
+        }
+    }
+
+    /**
+     * Get the time between the UTC hours of sunrise and sunset in seconds.
+     *
+     * The sunset determines a polar day, like {@link SolarInfo#isUpAllDay()}. On the boundary
+     * of a polar period only the morning can be polar: when the sun has not set since the
+     * previous day, it is up from local midnight until sunset; when it does not rise in the
+     * morning, there is no daylight.
+     *
+     * @param lngHour the longitude in hours, which gives the UTC hour of local midnight
+     */
+    static int dayLength(double rise, double set, double lngHour) {
+        if (set == SolarMath.POLAR_UP) return SolarMath.SECONDS_PER_DAY;
+        if (set == SolarMath.POLAR_DOWN) return 0;
+        if (rise == SolarMath.POLAR_DOWN) return 0;
+        if (rise == SolarMath.POLAR_UP) {
+            rise = -lngHour;
+        }
+
+        double hours = (set - rise) % 24;
+        if (hours < 0) {
+            hours += 24;
+        }
+        return (int) (hours * 3600);
+    }
+
+    private class RowsTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long epochDay;
+        private final int dayOfYear;
+        private final double cosZenith;
+        private final int from;
+        private final int to;
+
+        RowsTask(long epochDay, int dayOfYear, double cosZenith, int from, int to) {
+            this.epochDay = epochDay;
+            this.dayOfYear = dayOfYear;
+            this.cosZenith = cosZenith;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1 || (to - from) * columns <= CELLS_PER_TASK) {
+                for (int row = from; row < to; row++) {
+                    computeRow(row, epochDay, dayOfYear, cosZenith);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new RowsTask(epochDay, dayOfYear, cosZenith, from, middle),
+                    new RowsTask(epochDay, dayOfYear, cosZenith, middle, to));
+        }
+    }
+
+    /**
+     * Lazily created pool with one worker per available processor.
+     */
+    static class DefaultPool {
+        static final ForkJoinPool INSTANCE = new ForkJoinPool();
+    }
+}
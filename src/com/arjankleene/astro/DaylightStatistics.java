@@ -0,0 +1,187 @@
+package com.arjankleene.astro;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Aggregate the daylight of stations over a calendar year into an {@link AnnualSummary}.
+ *
+ * Each station is reduced in a single pass over the days of the year: sunrise and sunset are
+ * calculated for the four zeniths of {@link SolarThresholds#getDefaultZeniths()} at once, from
+ * one position of the sun per morning and evening, and folded into primitive accumulators.
+ * Apart from the summary, only the two arrays of the day's events are allocated per station.
+ * Events are placed on the local date with the standard offset of the station.
+ *
+ * Stations are spread over a fork-join pool; each task only writes its own summaries.
+ */
+public final class DaylightStatistics {
+
+    /** Maximum number of stations that a single task reduces */
+    private static final int STATIONS_PER_TASK = 4;
+
+    private static final double[] COS_ZENITHS = cosines(SolarThresholds.getDefaultZeniths());
+
+    private DaylightStatistics() {
+    }
+
+    /**
+     * Summarize the year of a single station.
+     */
+    public static AnnualSummary summarize(Station station, int year) {
+        long start = SolarInstrumentation.start();
+        AnnualSummary summary = reduce(station, year);
+        SolarInstrumentation.bulk(start, summary.getDays(), summary.getUpAllDays(), summary.getDownAllDays());
+        return summary;
+    }
+
+    /**
+     * Summarize the year of every station, using a shared fork-join pool.
+     *
+     * @return the summaries, in the order of the stations
+     */
+    public static AnnualSummary[] summarize(Station[] stations, int year) {
+        return summarize(stations, year, DaylightGrid.DefaultPool.INSTANCE);
+    }
+
+    /**
+     * Summarize the year of every station in the given pool.
+     *
+     * @return the summaries, in the order of the stations
+     */
+    public static AnnualSummary[] summarize(Station[] stations, int year, ForkJoinPool pool) {
+        AnnualSummary[] summaries = new AnnualSummary[stations.length];
+        pool.invoke(new StationsTask(stations, year, summaries, 0, stations.length));
+        return summaries;
+    }
+
+    private static AnnualSummary reduce(Station station, int year) {
+        int utcOffset = station.getUtcOffset();
+        double lngHour = station.getLongitude() / 15;
+        double sinLatitude = SolarMath.sind(station.getLatitude());
+        double cosLatitude = SolarMath.cosd(station.getLatitude());
+
+        long firstDay = SolarMath.epochDay(year, 1, 1);
+        int days = (int) (SolarMath.epochDay(year + 1, 1, 1) - firstDay);
+
+        long totalDaylight = 0;
+        long shortestDay = firstDay;
+        int shortestDayLength = Integer.MAX_VALUE;
+        long longestDay = firstDay;
+        int longestDayLength = -1;
+        long earliestSunRise = AnnualSummary.NOT_FOUND;
+        long earliestSunRiseTime = Long.MAX_VALUE;
+        long latestSunSet = AnnualSummary.NOT_FOUND;
+        long latestSunSetTime = Long.MIN_VALUE;
+        long civilTwilight = 0;
+        long nauticalTwilight = 0;
+        long astronomicalTwilight = 0;
+        int upAllDays = 0;
+        int downAllDays = 0;
+
+        // reused for every day
+        double[] rises = new double[COS_ZENITHS.length];
+        double[] sets = new double[COS_ZENITHS.length];
+
+        for (int dayOfYear = 1; dayOfYear <= days; dayOfYear++) {
+            long epochDay = firstDay + dayOfYear - 1;
+
+            SolarMath.fillZenithsUtc(dayOfYear, lngHour, sinLatitude, cosLatitude, COS_ZENITHS, rises, sets);
+            double rise = rises[0];
+            double set = sets[0];
+            int dayLength = DaylightGrid.dayLength(rise, set, lngHour);
+
+            totalDaylight += dayLength;
+            if (dayLength < shortestDayLength) {
+                shortestDayLength = dayLength;
+                shortestDay = epochDay;
+            }
+            if (dayLength > longestDayLength) {
+                longestDayLength = dayLength;
+                longestDay = epochDay;
+            }
+            if (set == SolarMath.POLAR_UP) {
+                upAllDays++;
+            } else if (set == SolarMath.POLAR_DOWN) {
+                downAllDays++;
+            }
+
+            // compare the local time of day of the events
+            long midnight = epochDay * SolarMath.SECONDS_PER_DAY - utcOffset;
+            if (rise != SolarMath.POLAR_UP && rise != SolarMath.POLAR_DOWN) {
+                long sunRise = SolarMath.toEpochSecond(epochDay, rise, utcOffset);
+                if (sunRise - midnight < earliestSunRiseTime) {
+                    earliestSunRiseTime = sunRise - midnight;
+                    earliestSunRise = sunRise;
+                }
+            }
+            if (set != SolarMath.POLAR_UP && set != SolarMath.POLAR_DOWN) {
+                long sunSet = SolarMath.toEpochSecond(epochDay, set, utcOffset);
+                if (sunSet - midnight > latestSunSetTime) {
+                    latestSunSetTime = sunSet - midnight;
+                    latestSunSet = sunSet;
+                }
+            }
+
+            // each twilight is the extra time above the next lower zenith
+            int previous = dayLength;
+            for (int i = 1; i < COS_ZENITHS.length; i++) {
+                int length = DaylightGrid.dayLength(rises[i], sets[i], lngHour);
+                int duration = Math.max(0, length - previous);
+                if (i == SolarThresholds.CIVIL) {
+                    civilTwilight += duration;
+                } else if (i == SolarThresholds.NAUTICAL) {
+                    nauticalTwilight += duration;
+                } else {
+                    astronomicalTwilight += duration;
+                }
+                previous = Math.max(previous, length);
+            }
+        }
+
+        return new AnnualSummary(station, year, days, totalDaylight,
+                shortestDay, shortestDayLength, longestDay, longestDayLength,
+                earliestSunRise, latestSunSet,
+                civilTwilight, nauticalTwilight, astronomicalTwilight,
+                upAllDays, downAllDays);
+    }
+
+    private static double[] cosines(double[] zeniths) {
+        double[] cosines = new double[zeniths.length];
+        for (int i = 0; i < zeniths.length; i++) {
+            cosines[i] = SolarMath.cosd(zeniths[i]);
+        }
+        return cosines;
+    }
+
+    private static class StationsTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Station[] stations;
+        private final int year;
+        private final AnnualSummary[] summaries;
+        private final int from;
+        private final int to;
+
+        StationsTask(Station[] stations, int year, AnnualSummary[] summaries, int from, int to) {
+            this.stations = stations;
+            this.year = year;
+            this.summaries = summaries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= STATIONS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    summaries[i] = summarize(stations[i], year);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new StationsTask(stations, year, summaries, from, middle),
+                    new StationsTask(stations, year, summaries, middle, to));
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.arjankleene.astro;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps all measurements in memory, for tests, benchmarks and periodic export.
+ *
+ * Latencies are kept in histograms with power-of-two buckets of nanoseconds.
+ */
+public class InMemorySolarMetrics implements SolarMetrics {
+
+    private final AtomicLong calculations = new AtomicLong();
+    private final AtomicLong bulkCalculations = new AtomicLong();
+    private final AtomicLong bulkResults = new AtomicLong();
+    private final AtomicLong upAllDay = new AtomicLong();
+    private final AtomicLong downAllDay = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong cacheEvictions = new AtomicLong();
+
+    private final Histogram singleLatency = new Histogram();
+    private final Histogram bulkLatency = new Histogram();
+
+    @Override
+    public void calculation(long nanos) {
+        calculations.incrementAndGet();
+        singleLatency.record(nanos);
+    }
+
+    @Override
+    public void bulkCalculation(int count, long nanos) {
+        bulkCalculations.incrementAndGet();
+        bulkResults.addAndGet(count);
+        bulkLatency.record(nanos);
+    }
+
+    @Override
+    public void polar(byte state) {
+        if (state == SolarMath.STATE_UP_ALL_DAY) {
+            upAllDay.incrementAndGet();
+        } else if (state == SolarMath.STATE_DOWN_ALL_DAY) {
+            downAllDay.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void cacheHit() {
+        cacheHits.incrementAndGet();
+    }
+
+    @Override
+    public void cacheMiss() {
+        cacheMisses.incrementAndGet();
+    }
+
+    @Override
+    public void cacheEviction() {
+        cacheEvictions.incrementAndGet();
+    }
+
+    /**
+     * Number of single calculations.
+     */
+    public long getCalculations() {
+        return calculations.get();
+    }
+
+    /**
+     * Number of bulk calls.
+     */
+    public long getBulkCalculations() {
+        return bulkCalculations.get();
+    }
+
+    /**
+     * Total number of results of all bulk calls.
+     */
+    public long getBulkResults() {
+        return bulkResults.get();
+    }
+
+    public long getUpAllDay() {
+        return upAllDay.get();
+    }
+
+    public long getDownAllDay() {
+        return downAllDay.get();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    public long getCacheEvictions() {
+        return cacheEvictions.get();
+    }
+
+    public Histogram getSingleLatency() {
+        return singleLatency;
+    }
+
+    public Histogram getBulkLatency() {
+        return bulkLatency;
+    }
+
+    public void reset() {
+        calculations.set(0);
+        bulkCalculations.set(0);
+        bulkResults.set(0);
+        upAllDay.set(0);
+        downAllDay.set(0);
+        cacheHits.set(0);
+        cacheMisses.set(0);
+        cacheEvictions.set(0);
+        singleLatency.reset();
+        bulkLatency.reset();
+    }
+
+    /**
+     * Latency histogram with a bucket for every power of two nanoseconds.
+     */
+    public static class Histogram {
+        private static final int BUCKETS = 64;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long nanos) {
+            if (nanos < 0) {
+                nanos = 0;
+            }
+            // 0 and 1 nanoseconds both go in the first bucket
+            buckets.incrementAndGet(Math.max(0, BUCKETS - 1 - Long.numberOfLeadingZeros(nanos)));
+            count.incrementAndGet();
+            total.addAndGet(nanos);
+
+            long current = max.get();
+            while (nanos > current && !max.compareAndSet(current, nanos)) {
+                current = max.get();
+            }
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getTotalNanos() {
+            return total.get();
+        }
+
+        public long getMaxNanos() {
+            return max.get();
+        }
+
+        public double getMeanNanos() {
+            long n = count.get();
+            return n == 0 ? 0 : (double) total.get() / n;
+        }
+
+        /**
+         * Get the number of measurements in the bucket for [2^bucket, 2^(bucket + 1)) nanoseconds.
+         */
+        public long getBucket(int bucket) {
+            return buckets.get(bucket);
+        }
+
+        /**
+         * Get an upper bound for the given percentile, in nanoseconds.
+         *
+         * @param percentile a value from 0 to 100
+         */
+        public long getPercentileNanos(double percentile) {
+            long n = count.get();
+            if (n == 0) return 0;
+
+            long rank = (long) Math.ceil(n * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank && seen > 0) {
+                    return i == BUCKETS - 1 ? Long.MAX_VALUE : Math.min((1L << (i + 1)) - 1, max.get());
+                }
+            }
+            return max.get();
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            count.set(0);
+            total.set(0);
+            max.set(0);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.arjankleene.astro;
+
+/**
+ * Update sunrise and sunset for small changes of location or date without a full calculation.
+ *
+ * A full calculation keeps the intermediate values of {@link SolarMath} for both events
+ * (the sun's true longitude, declination and local hour angle) together with the partial
+ * derivatives of the event time with respect to latitude, longitude and date. Following
+ * updates apply a first-order correction to that solution.
+ *
+ * The error of the correction is estimated from the second-order terms: the curvature of
+ * the hour angle in its cosine, which grows near polar day and night, the curvature of the
+ * cosine in the latitude and the change of the time derivative over a day. When the
+ * estimate exceeds the configured bound, or the event may become polar, the times are
+ * calculated in full and the new solution replaces the old one.
+ *
+ * Instances are not thread-safe.
+ */
+public class IncrementalSolver {
+
+    private final double zenith;
+    private final double cosZenith;
+    private final int utcOffset;
+    private final double maxError;
+
+    private final Linearization rise = new Linearization(true);
+    private final Linearization set = new Linearization(false);
+
+    private boolean solved;
+    private long baseDay;
+    private double baseLatitude;
+    private double baseLongitude;
+
+    private double lastError;
+    private int fullComputations;
+    private int incrementalUpdates;
+
+    /**
+     * @param utcOffset offset of local standard time to UTC in seconds
+     * @param maxError  the largest estimated error in seconds for which the correction is used
+     */
+    public IncrementalSolver(double zenith, int utcOffset, double maxError) {
+        if (!(maxError >= 0)) {
+            throw new IllegalArgumentException("Error bound must not be negative: " + maxError);
+        }
+        this.zenith = zenith;
+        this.cosZenith = SolarMath.cosd(zenith);
+        this.utcOffset = utcOffset;
+        this.maxError = maxError;
+    }
+
+    /**
+     * Get sunrise and sunset at a location, correcting the last full solution when possible.
+     *
+     * @param epochDay the local date as days since 1970-01-01
+     */
+    public SolarTimes update(long epochDay, double latitude, double longitude) {
+        // the day of the year restarts at new year, so the solution does not extend beyond it
+        if (solved && SolarMath.year(epochDay) == SolarMath.year(baseDay)) {
+            double deltaLatitude = latitude - baseLatitude;
+            double deltaLongitude = longitude - baseLongitude;
+            if (deltaLongitude > 180) {
+                deltaLongitude -= 360;
+            } else if (deltaLongitude < -180) {
+                deltaLongitude += 360;
+            }
+            // the change of the approximate time of the events in days
+            double deltaT = (epochDay - baseDay) - deltaLongitude / 360;
+
+            double error = Math.max(rise.error(deltaLatitude, deltaT), set.error(deltaLatitude, deltaT));
+            if (error <= maxError) {
+                lastError = error;
+                incrementalUpdates++;
+                return new SolarTimes(
+                        SolarMath.toEpochSecond(epochDay, rise.utc(deltaLatitude, deltaLongitude, deltaT), utcOffset),
+                        SolarMath.toEpochSecond(epochDay, set.utc(deltaLatitude, deltaLongitude, deltaT), utcOffset));
+            }
+        }
+
+        solve(epochDay, latitude, longitude);
+        lastError = 0;
+        return new SolarTimes(
+                SolarMath.toEpochSecond(epochDay, rise.utc, utcOffset),
+                SolarMath.toEpochSecond(epochDay, set.utc, utcOffset));
+    }
+
+    public double getZenith() {
+        return zenith;
+    }
+
+    public int getUtcOffset() {
+        return utcOffset;
+    }
+
+    /**
+     * The largest estimated error in seconds for which a result is corrected.
+     */
+    public double getMaxError() {
+        return maxError;
+    }
+
+    /**
+     * Estimated error in seconds of the last result; 0 after a full calculation.
+     */
+    public double getLastError() {
+        return lastError;
+    }
+
+    public int getFullComputations() {
+        return fullComputations;
+    }
+
+    public int getIncrementalUpdates() {
+        return incrementalUpdates;
+    }
+
+    private void solve(long epochDay, double latitude, double longitude) {
+        int dayOfYear = SolarMath.dayOfYear(epochDay);
+        double lngHour = longitude / 15;
+        double sinLatitude = SolarMath.sind(latitude);
+        double cosLatitude = SolarMath.cosd(latitude);
+
+        rise.solve(dayOfYear, lngHour, cosZenith, sinLatitude, cosLatitude);
+        set.solve(dayOfYear, lngHour, cosZenith, sinLatitude, cosLatitude);
+
+        solved = true;
+        baseDay = epochDay;
+        baseLatitude = latitude;
+        baseLongitude = longitude;
+        fullComputations++;
+    }
+
+    /**
+     * The solution of one event and its derivatives.
+     */
+    private static class Linearization {
+        private final boolean rising;
+
+        /** UTC hour of the event, or one of the polar values */
+        double utc;
+
+        // intermediate values of the solution
+        double sunLongitude;
+        double sinDec;
+        double cosH;
+        double sinH;
+
+        /** Derivatives of cosH, per degree of latitude and per day */
+        double cosHPerLatitude;
+        double cosHPerDay;
+        /** Second derivative of cosH per degree of latitude */
+        double cosHPerLatitude2;
+
+        /** Derivative of the UTC hour to cosH, and to the approximate time in days */
+        double utcPerCosH;
+        double utcPerDay;
+        /** Change of utcPerDay over a day */
+        double utcPerDay2;
+
+        Linearization(boolean rising) {
+            this.rising = rising;
+        }
+
+        void solve(int dayOfYear, double lngHour, double cosZenith, double sinLatitude, double cosLatitude) {
+            double t = rising ? SolarMath.getRiseT(dayOfYear, lngHour) : SolarMath.getSetT(dayOfYear, lngHour);
+            utc = rising
+                    ? SolarMath.riseUtc(dayOfYear, lngHour, cosZenith, sinLatitude, cosLatitude)
+                    : SolarMath.setUtc(dayOfYear, lngHour, cosZenith, sinLatitude, cosLatitude);
+            if (utc == SolarMath.POLAR_UP || utc == SolarMath.POLAR_DOWN) return;
+
+            utcPerDay = derivatives(t, cosZenith, sinLatitude, cosLatitude);
+            double next = derivatives(t + 1, cosZenith, sinLatitude, cosLatitude);
+            utcPerDay2 = Double.isNaN(next) ? Double.POSITIVE_INFINITY : next - utcPerDay;
+
+            // keep the values of the solution itself
+            derivatives(t, cosZenith, sinLatitude, cosLatitude);
+        }
+
+        /**
+         * Calculate the intermediate values and derivatives at an approximate time.
+         *
+         * @return the derivative of the UTC hour to the approximate time, or NaN if polar
+         */
+        private double derivatives(double t, double cosZenith, double sinLatitude, double cosLatitude) {
+            double meanAnomaly = 0.9856 * t - 3.289;
+            sunLongitude = SolarMath.getSunLongitude(t);
+            sinDec = SolarMath.getSinDeclination(sunLongitude);
+            double cosDec = SolarMath.getCosDeclination(sinDec);
+
+            cosH = SolarMath.getCosH(sinDec, cosDec, cosZenith, sinLatitude, cosLatitude);
+            if (cosH >= 1 || cosH <= -1) return Double.NaN;
+            sinH = Math.sqrt(1 - cosH * cosH);
+
+            // H = 360 - acos(cosH) in the morning and acos(cosH) in the evening, in hours
+            utcPerCosH = (rising ? 1 : -1) * SolarMath.RADEG / (15 * sinH);
+
+            // cosH = A sec(lat) - B tan(lat)
+            double a = cosZenith / cosDec;
+            double b = sinDec / cosDec;
+            double secant = 1 / cosLatitude;
+            double tangent = sinLatitude / cosLatitude;
+            cosHPerLatitude = SolarMath.DEGRAD * (a * secant * tangent - b * secant * secant);
+            cosHPerLatitude2 = SolarMath.DEGRAD * SolarMath.DEGRAD
+                    * (a * (secant * tangent * tangent + secant * secant * secant) - 2 * b * secant * secant * tangent);
+
+            // the sun's longitude changes with the mean anomaly, in degrees per day
+            double longitudePerDay = 0.9856 * (1 + SolarMath.DEGRAD
+                    * (1.916 * SolarMath.cosd(meanAnomaly) + 0.040 * SolarMath.cosd(2 * meanAnomaly)));
+            double sinDecPerDay = 0.39782 * SolarMath.cosd(sunLongitude) * SolarMath.DEGRAD * longitudePerDay;
+            double cosHPerSinDec = -sinLatitude / (cosDec * cosLatitude) + cosH * sinDec / (cosDec * cosDec);
+            cosHPerDay = cosHPerSinDec * sinDecPerDay;
+
+            double sinL = SolarMath.sind(sunLongitude);
+            double cosL = SolarMath.cosd(sunLongitude);
+            double rightAscensionPerDay = 0.91764 / (cosL * cosL + 0.91764 * 0.91764 * sinL * sinL)
+                    * longitudePerDay / 15;
+
+            return utcPerCosH * cosHPerDay + rightAscensionPerDay - 0.06571;
+        }
+
+        /**
+         * Estimate the error in seconds of the first-order correction.
+         *
+         * @return the estimate, or infinity if the event is or may become polar
+         */
+        double error(double deltaLatitude, double deltaT) {
+            if (utc == SolarMath.POLAR_UP || utc == SolarMath.POLAR_DOWN) return Double.POSITIVE_INFINITY;
+
+            double deltaCosH = cosHPerLatitude * deltaLatitude + cosHPerDay * deltaT;
+            double estimate = cosH + deltaCosH;
+            if (estimate >= 1 || estimate <= -1) return Double.POSITIVE_INFINITY;
+
+            // second derivative of acos(x) is -x / (1 - x^2)^(3/2)
+            double hourAngle = 0.5 * Math.abs(cosH) / (sinH * sinH * sinH) * deltaCosH * deltaCosH
+                    * SolarMath.RADEG / 15;
+            double latitude = 0.5 * Math.abs(utcPerCosH * cosHPerLatitude2) * deltaLatitude * deltaLatitude;
+            double day = 0.5 * Math.abs(utcPerDay2) * deltaT * deltaT;
+            return (hourAngle + latitude + day) * 3600;
+        }
+
+        /**
+         * Get the corrected UTC hour.
+         */
+        double utc(double deltaLatitude, double deltaLongitude, double deltaT) {
+            double hours = utc + utcPerCosH * cosHPerLatitude * deltaLatitude + utcPerDay * deltaT
+                    - deltaLongitude / 15;
+            hours %= 24;
+            return hours < 0 ? hours + 24 : hours;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.arjankleene.astro;
+
+/**
+ * Find the boundaries of polar day and polar night, and the next real sunrise or sunset.
+ *
+ * Whether the sun rises or sets on a date only depends on the sun's declination, through
+ * {@link SolarMath#getCosH}. Between the solstices the declination is monotonic, so each
+ * polar state is a single run of days at one end of that half year. Instead of calculating
+ * every day until the polar period ends, the first day with a different state is found by
+ * a binary search within each half year: O(log days) calculations.
+ *
+ * The search looks ahead for at most two years; beyond that {@link #NOT_FOUND} is returned.
+ *
+ * Instances are not thread-safe.
+ */
+public class PolarSearch {
+
+    /** Result when no day or event is found within the search horizon */
+    public static final long NOT_FOUND = Long.MAX_VALUE;
+
+    /** Number of half years that are searched */
+    private static final int MAX_SEGMENTS = 4;
+
+    /** Days of the year with the highest and lowest declination in the algorithm */
+    private static final int JUNE_SOLSTICE;
+    private static final int DECEMBER_SOLSTICE;
+
+    static {
+        int highest = 1;
+        int lowest = 1;
+        double max = -1;
+        double min = 1;
+        for (int dayOfYear = 1; dayOfYear <= 365; dayOfYear++) {
+            double sinDec = SolarMath.getSinDeclination(SolarMath.getSunLongitude(dayOfYear + 0.5));
+            if (sinDec > max) {
+                max = sinDec;
+                highest = dayOfYear;
+            }
+            if (sinDec < min) {
+                min = sinDec;
+                lowest = dayOfYear;
+            }
+        }
+        JUNE_SOLSTICE = highest;
+        DECEMBER_SOLSTICE = lowest;
+    }
+
+    private final double latitude;
+    private final double longitude;
+    private final double zenith;
+    private final int utcOffset;
+
+    private final double lngHour;
+    private final double cosZenith;
+    private final double sinLatitude;
+    private final double cosLatitude;
+
+    private int calculations;
+
+    /**
+     * @param utcOffset offset of local standard time to UTC in seconds
+     */
+    public PolarSearch(double latitude, double longitude, double zenith, int utcOffset) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.zenith = zenith;
+        this.utcOffset = utcOffset;
+
+        this.lngHour = longitude / 15;
+        this.cosZenith = SolarMath.cosd(zenith);
+        this.sinLatitude = SolarMath.sind(latitude);
+        this.cosLatitude = SolarMath.cosd(latitude);
+    }
+
+    /**
+     * Get the state of the date, like {@link SolarInfo#isUpAllDay()} and {@link SolarInfo#isDownAllDay()}.
+     *
+     * @param epochDay the local date as days since 1970-01-01
+     */
+    public byte getState(long epochDay) {
+        return state(false, epochDay);
+    }
+
+    /**
+     * Find the first date on or after the given one with the given polar state.
+     *
+     * @param state {@link SolarMath#STATE_UP_ALL_DAY} or {@link SolarMath#STATE_DOWN_ALL_DAY}
+     * @return the local date as days since 1970-01-01, or {@link #NOT_FOUND}
+     */
+    public long findPolarStart(long epochDay, byte state) {
+        if (state != SolarMath.STATE_UP_ALL_DAY && state != SolarMath.STATE_DOWN_ALL_DAY) {
+            throw new IllegalArgumentException("Not a polar state: " + state);
+        }
+        return firstDay(epochDay, false, state, true);
+    }
+
+    /**
+     * Find the first date on or after the given one that is not in the same polar state.
+     *
+     * @return the given date when it is not polar, the first date after the polar period,
+     * or {@link #NOT_FOUND}
+     */
+    public long findPolarEnd(long epochDay) {
+        byte state = getState(epochDay);
+        if (state == SolarMath.STATE_NORMAL) return epochDay;
+        return firstDay(epochDay, false, state, false);
+    }
+
+    /**
+     * Find the first sunrise after the given time.
+     *
+     * @return the sunrise as epoch seconds, or {@link #NOT_FOUND}
+     */
+    public long nextSunRise(long epochSecond) {
+        return nextEvent(true, epochSecond);
+    }
+
+    /**
+     * Find the first sunset after the given time.
+     *
+     * @return the sunset as epoch seconds, or {@link #NOT_FOUND}
+     */
+    public long nextSunSet(long epochSecond) {
+        return nextEvent(false, epochSecond);
+    }
+
+    /**
+     * Number of days calculated since the instance was created.
+     */
+    int getCalculations() {
+        return calculations;
+    }
+
+    private long nextEvent(boolean rising, long epochSecond) {
+        long last = SolarMath.floorDiv(epochSecond + utcOffset, SolarMath.SECONDS_PER_DAY) + MAX_SEGMENTS * 183;
+
+        // the event of the previous local date can fall after the time with a large offset
+        long day = SolarMath.floorDiv(epochSecond + utcOffset, SolarMath.SECONDS_PER_DAY) - 1;
+        while (day <= last) {
+            byte state = state(rising, day);
+            if (state != SolarMath.STATE_NORMAL) {
+                day = firstDay(day, rising, state, false);
+                if (day == NOT_FOUND) return NOT_FOUND;
+                continue;
+            }
+
+            long event = rising
+                    ? SolarMath.sunRise(day, latitude, longitude, zenith, utcOffset)
+                    : SolarMath.sunSet(day, latitude, longitude, zenith, utcOffset);
+            if (event > epochSecond) return event;
+            day++;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Find the first date on or after from for which (state of the event == state) equals matches.
+     *
+     * The predicate is monotonic between solstices, so each half year either contains no
+     * match or a match at its end, which is then narrowed down by bisection.
+     */
+    private long firstDay(long from, boolean rising, byte state, boolean matches) {
+        if ((state(rising, from) == state) == matches) return from;
+
+        long start = from;
+        for (int segment = 0; segment < MAX_SEGMENTS; segment++) {
+            long end = nextSolstice(start);
+            if ((state(rising, end) == state) != matches) {
+                start = end;
+                continue;
+            }
+
+            // start does not match, end does
+            while (end - start > 1) {
+                long middle = (start + end) >>> 1;
+                if ((state(rising, middle) == state) == matches) {
+                    end = middle;
+                } else {
+                    start = middle;
+                }
+            }
+            return end;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Get the first solstice after the given date.
+     */
+    private static long nextSolstice(long epochDay) {
+        int year = SolarMath.year(epochDay);
+        long newYear = SolarMath.epochDay(year, 1, 1);
+
+        long june = newYear + JUNE_SOLSTICE - 1;
+        if (june > epochDay) return june;
+
+        long december = newYear + DECEMBER_SOLSTICE - 1;
+        if (december > epochDay) return december;
+
+        return SolarMath.epochDay(year + 1, 1, 1) + JUNE_SOLSTICE - 1;
+    }
+
+    private byte state(boolean rising, long epochDay) {
+        calculations++;
+        int dayOfYear = SolarMath.dayOfYear(epochDay);
+        double utc = rising
+                ? SolarMath.riseUtc(dayOfYear, lngHour, cosZenith, sinLatitude, cosLatitude)
+                : SolarMath.setUtc(dayOfYear, lngHour, cosZenith, sinLatitude, cosLatitude);
+
+        if (utc == SolarMath.POLAR_UP) return SolarMath.STATE_UP_ALL_DAY;
+        if (utc == SolarMath.POLAR_DOWN) return SolarMath.STATE_DOWN_ALL_DAY;
+        return SolarMath.STATE_NORMAL;
+    }
+}
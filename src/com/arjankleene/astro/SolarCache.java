@@ -0,0 +1,169 @@
+package com.arjankleene.astro;
+
+import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe, size-bounded cache of sunrise and sunset results with LRU eviction.
+ *
+ * Latitude and longitude are quantized to the configured precision before they are used as
+ * key, and the result is calculated for the quantized location. That way every lookup for
+ * the same key gives the same result, regardless of which location caused the calculation.
+ * A precision of 0.01 degree changes the times by less than a minute.
+ *
+ * Hit, miss and eviction counters are kept to tune the size and precision. They are also
+ * reported to the registered {@link SolarMetrics}.
+ */
+public class SolarCache {
+
+    private final int maxSize;
+    private final double precision;
+    private final Map<Key, SolarTimes> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxSize   the maximum number of results kept
+     * @param precision the size of a location cell in degrees
+     */
+    public SolarCache(int maxSize, double precision) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        if (!(precision > 0)) {
+            throw new IllegalArgumentException("Precision must be positive: " + precision);
+        }
+        this.maxSize = maxSize;
+        this.precision = precision;
+        this.entries = new LinkedHashMap<Key, SolarTimes>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, SolarTimes> eldest) {
+                if (size() > SolarCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    SolarInstrumentation.cacheEviction();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get sunrise and sunset on the date of the calendar, in its timezone.
+     */
+    public SolarTimes get(GregorianCalendar date, double latitude, double longitude, double zenith) {
+        return get(SolarInfo.epochDay(date), latitude, longitude, zenith, SolarInfo.utcOffset(date));
+    }
+
+    /**
+     * Get sunrise and sunset, calculating and storing them when they are not cached yet.
+     *
+     * @param epochDay  the local date as days since 1970-01-01
+     * @param utcOffset offset of local standard time to UTC in seconds
+     */
+    public SolarTimes get(long epochDay, double latitude, double longitude, double zenith, int utcOffset) {
+        Key key = new Key(Math.round(latitude / precision), Math.round(longitude / precision),
+                epochDay, zenith, utcOffset);
+
+        SolarTimes times;
+        synchronized (entries) {
+            times = entries.get(key);
+        }
+        if (times != null) {
+            hits.incrementAndGet();
+            SolarInstrumentation.cacheHit();
+            return times;
+        }
+        misses.incrementAndGet();
+        SolarInstrumentation.cacheMiss();
+
+        // calculate outside the lock, concurrent misses for the same key give the same result
+        double quantizedLatitude = key.latitude * precision;
+        double quantizedLongitude = key.longitude * precision;
+        long start = SolarInstrumentation.start();
+        times = new SolarTimes(
+                SolarMath.sunRise(epochDay, quantizedLatitude, quantizedLongitude, zenith, utcOffset),
+                SolarMath.sunSet(epochDay, quantizedLatitude, quantizedLongitude, zenith, utcOffset));
+        SolarInstrumentation.single(start, times.getSunSet());
+
+        synchronized (entries) {
+            entries.put(key, times);
+        }
+        return times;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public double getPrecision() {
+        return precision;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private static final class Key {
+        private final long latitude;
+        private final long longitude;
+        private final long epochDay;
+        private final long zenith;
+        private final int utcOffset;
+
+        Key(long latitude, long longitude, long epochDay, double zenith, int utcOffset) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.epochDay = epochDay;
+            this.zenith = Double.doubleToLongBits(zenith);
+            this.utcOffset = utcOffset;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+
+            Key other = (Key) o;
+            return latitude == other.latitude
+                    && longitude == other.longitude
+                    && epochDay == other.epochDay
+                    && zenith == other.zenith
+                    && utcOffset == other.utcOffset;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (int) (latitude ^ (latitude >>> 32));
+            result = 31 * result + (int) (longitude ^ (longitude >>> 32));
+            result = 31 * result + (int) (epochDay ^ (epochDay >>> 32));
+            result = 31 * result + (int) (zenith ^ (zenith >>> 32));
+            result = 31 * result + utcOffset;
+            return result;
+        }
+    }
+}
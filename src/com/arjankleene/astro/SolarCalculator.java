@@ -0,0 +1,83 @@
+package com.arjankleene.astro;
+
+/**
+ * An algorithm for sunrise and sunset.
+ *
+ * All engines have the signatures and results of {@link SolarMath}: dates are epoch days,
+ * offsets are seconds and events are epoch seconds or one of the polar sentinel values.
+ * They are stateless and thread-safe.
+ */
+public interface SolarCalculator {
+
+    /** The algorithm of {@link SolarMath}, within about a minute */
+    SolarCalculator WILLIAMS = new SolarCalculator() {
+        @Override
+        public String getName() {
+            return "williams";
+        }
+
+        @Override
+        public long sunRise(long epochDay, double latitude, double longitude, double zenith, int utcOffset) {
+            return SolarMath.sunRise(epochDay, latitude, longitude, zenith, utcOffset);
+        }
+
+        @Override
+        public long sunSet(long epochDay, double latitude, double longitude, double zenith, int utcOffset) {
+            return SolarMath.sunSet(epochDay, latitude, longitude, zenith, utcOffset);
+        }
+
+        @Override
+        public void fillRange(double latitude, double longitude, long startDay, int days, double zenith,
+                              int utcOffset, long[] sunrises, long[] sunsets, byte[] states) {
+            SolarMath.fillRange(latitude, longitude, startDay, days, zenith, utcOffset, sunrises, sunsets, states);
+        }
+    };
+
+    /** The tables of {@link SolarTable}, fastest and within a few seconds of williams */
+    SolarCalculator TABLE = new SolarCalculator() {
+        @Override
+        public String getName() {
+            return "table";
+        }
+
+        @Override
+        public long sunRise(long epochDay, double latitude, double longitude, double zenith, int utcOffset) {
+            return SolarTable.sunRise(epochDay, latitude, longitude, zenith, utcOffset);
+        }
+
+        @Override
+        public long sunSet(long epochDay, double latitude, double longitude, double zenith, int utcOffset) {
+            return SolarTable.sunSet(epochDay, latitude, longitude, zenith, utcOffset);
+        }
+
+        @Override
+        public void fillRange(double latitude, double longitude, long startDay, int days, double zenith,
+                              int utcOffset, long[] sunrises, long[] sunsets, byte[] states) {
+            SolarTable.fillRange(latitude, longitude, startDay, days, zenith, utcOffset, sunrises, sunsets, states);
+        }
+    };
+
+    /** The NOAA algorithm of {@link NoaaCalculator}, within seconds but several times slower */
+    SolarCalculator NOAA = new NoaaCalculator();
+
+    /**
+     * Short lowercase name of the engine, like williams.
+     */
+    String getName();
+
+    /**
+     * @see SolarMath#sunRise(long, double, double, double, int)
+     */
+    long sunRise(long epochDay, double latitude, double longitude, double zenith, int utcOffset);
+
+    /**
+     * @see SolarMath#sunSet(long, double, double, double, int)
+     */
+    long sunSet(long epochDay, double latitude, double longitude, double zenith, int utcOffset);
+
+    /**
+     * @see SolarMath#fillRange(double, double, long, int, double, int, long[], long[], byte[])
+     */
+    void fillRange(double latitude, double longitude, long startDay, int days, double zenith,
+                   int utcOffset, long[] sunrises, long[] sunsets, byte[] states);
+}
@@ -0,0 +1,262 @@
+package com.arjankleene.astro;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Sunrise and sunset of many sites over a range of days, stored outside the Java heap.
+ *
+ * There is a sunrise and a sunset column for each zenith. A column is a direct buffer of
+ * ints, indexed by {@code site * getDays() + day}, so the days of a site are contiguous. An
+ * event is stored as the number of seconds since local midnight of its date, using the
+ * standard offset of the site; {@link #UP_ALL_DAY} and {@link #DOWN_ALL_DAY} replace the
+ * polar sentinel values of {@link SolarMath}. A site takes 4 bytes per day per column.
+ *
+ * Reading a site that has not been filled throws an {@link IllegalStateException}.
+ *
+ * Instances are not thread-safe; fill the store before reading from several threads.
+ */
+public class SolarColumnStore {
+
+    /** Stored offset when the sun does not set on the date */
+    public static final int UP_ALL_DAY = Integer.MAX_VALUE;
+    /** Stored offset when the sun does not rise on the date */
+    public static final int DOWN_ALL_DAY = Integer.MIN_VALUE;
+    /** Stored offset of a site that has not been filled */
+    static final int NOT_FILLED = Integer.MIN_VALUE + 1;
+
+    private final int sites;
+    private final long startDay;
+    private final int days;
+    private final double[] zeniths;
+
+    private final IntBuffer[] sunRises;
+    private final IntBuffer[] sunSets;
+    private final IntBuffer utcOffsets;
+
+    // reused for every fill
+    private long[] riseEvents;
+    private long[] setEvents;
+    private byte[] states;
+
+    /**
+     * Allocate the columns; sites cannot be read until they are filled.
+     *
+     * @param startDay the first local date as days since 1970-01-01
+     */
+    public SolarColumnStore(int sites, long startDay, int days, double... zeniths) {
+        if (sites < 0 || days < 0) {
+            throw new IllegalArgumentException("Invalid size: " + sites + " sites, " + days + " days");
+        }
+        if (zeniths.length == 0) {
+            throw new IllegalArgumentException("At least one zenith is required");
+        }
+        if ((long) sites * days * 4 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Column too large: " + sites + " sites of " + days + " days");
+        }
+
+        this.sites = sites;
+        this.startDay = startDay;
+        this.days = days;
+        this.zeniths = zeniths.clone();
+
+        sunRises = new IntBuffer[zeniths.length];
+        sunSets = new IntBuffer[zeniths.length];
+        for (int i = 0; i < zeniths.length; i++) {
+            sunRises[i] = column(sites * days, NOT_FILLED);
+            sunSets[i] = column(sites * days, NOT_FILLED);
+        }
+        utcOffsets = column(sites, 0);
+    }
+
+    public int getSites() {
+        return sites;
+    }
+
+    public long getStartDay() {
+        return startDay;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public int getZenithCount() {
+        return zeniths.length;
+    }
+
+    public double getZenith(int zenith) {
+        return zeniths[zenith];
+    }
+
+    /**
+     * Number of bytes allocated outside the heap.
+     */
+    public long getCapacity() {
+        return (long) sites * days * 4 * 2 * zeniths.length + sites * 4L;
+    }
+
+    /**
+     * Calculate all days and zeniths of a site with {@link SolarCalculator#WILLIAMS}.
+     */
+    public void fill(int site, double latitude, double longitude, int utcOffset) {
+        fill(site, latitude, longitude, utcOffset, SolarCalculator.WILLIAMS);
+    }
+
+    /**
+     * Calculate all days and zeniths of a site with the given calculator.
+     *
+     * @param utcOffset offset of local standard time to UTC in seconds
+     */
+    public void fill(int site, double latitude, double longitude, int utcOffset, SolarCalculator calculator) {
+        checkSite(site);
+        if (riseEvents == null) {
+            riseEvents = new long[days];
+            setEvents = new long[days];
+            states = new byte[days];
+        }
+
+        int base = site * days;
+        for (int zenith = 0; zenith < zeniths.length; zenith++) {
+            long start = SolarInstrumentation.start();
+            calculator.fillRange(latitude, longitude, startDay, days, zeniths[zenith], utcOffset,
+                    riseEvents, setEvents, states);
+
+            IntBuffer rises = sunRises[zenith];
+            IntBuffer sets = sunSets[zenith];
+            long midnight = startDay * SolarMath.SECONDS_PER_DAY - utcOffset;
+            for (int day = 0; day < days; day++, midnight += SolarMath.SECONDS_PER_DAY) {
+                rises.put(base + day, encode(riseEvents[day], midnight));
+                sets.put(base + day, encode(setEvents[day], midnight));
+            }
+            SolarInstrumentation.bulk(start, setEvents, days);
+        }
+        utcOffsets.put(site, utcOffset);
+    }
+
+    /**
+     * Calculate the sites in order, site i from station i.
+     */
+    public void fill(Station[] stations, SolarCalculator calculator) {
+        if (stations.length > sites) {
+            throw new IllegalArgumentException("Store holds " + sites + " sites, not " + stations.length);
+        }
+        for (int site = 0; site < stations.length; site++) {
+            Station station = stations[site];
+            fill(site, station.getLatitude(), station.getLongitude(), station.getUtcOffset(), calculator);
+        }
+    }
+
+    public int getUtcOffset(int site) {
+        checkSite(site);
+        return utcOffsets.get(site);
+    }
+
+    /**
+     * Get the stored sunrise as seconds since local midnight, or one of the polar values.
+     *
+     * @param day the index of the date, 0 for the start day
+     */
+    public int getSunRiseOffset(int site, int day, int zenith) {
+        return checkFilled(sunRises[zenith].get(index(site, day)), site);
+    }
+
+    /**
+     * Get the stored sunset as seconds since local midnight, or one of the polar values.
+     *
+     * @param day the index of the date, 0 for the start day
+     */
+    public int getSunSetOffset(int site, int day, int zenith) {
+        return checkFilled(sunSets[zenith].get(index(site, day)), site);
+    }
+
+    /**
+     * Get the sunrise as epoch seconds, or one of the polar sentinel values of {@link SolarMath}.
+     */
+    public long getSunRise(int site, int day, int zenith) {
+        return decode(getSunRiseOffset(site, day, zenith), midnight(site, day));
+    }
+
+    /**
+     * Get the sunset as epoch seconds, or one of the polar sentinel values of {@link SolarMath}.
+     */
+    public long getSunSet(int site, int day, int zenith) {
+        return decode(getSunSetOffset(site, day, zenith), midnight(site, day));
+    }
+
+    /**
+     * Copy the sunrises of all days of a site, as epoch seconds or polar sentinel values.
+     */
+    public void getSunRises(int site, int zenith, long[] events) {
+        copy(sunRises[zenith], site, events);
+    }
+
+    /**
+     * Copy the sunsets of all days of a site, as epoch seconds or polar sentinel values.
+     */
+    public void getSunSets(int site, int zenith, long[] events) {
+        copy(sunSets[zenith], site, events);
+    }
+
+    private void copy(IntBuffer column, int site, long[] events) {
+        checkSite(site);
+        if (events.length < days) {
+            throw new IllegalArgumentException("Array must hold at least " + days + " days");
+        }
+
+        int base = site * days;
+        long midnight = startDay * SolarMath.SECONDS_PER_DAY - utcOffsets.get(site);
+        for (int day = 0; day < days; day++, midnight += SolarMath.SECONDS_PER_DAY) {
+            events[day] = decode(checkFilled(column.get(base + day), site), midnight);
+        }
+    }
+
+    private long midnight(int site, int day) {
+        return (startDay + day) * SolarMath.SECONDS_PER_DAY - utcOffsets.get(site);
+    }
+
+    private int index(int site, int day) {
+        checkSite(site);
+        if (day < 0 || day >= days) {
+            throw new IndexOutOfBoundsException("Day " + day + " of " + days);
+        }
+        return site * days + day;
+    }
+
+    private void checkSite(int site) {
+        if (site < 0 || site >= sites) {
+            throw new IndexOutOfBoundsException("Site " + site + " of " + sites);
+        }
+    }
+
+    private static int checkFilled(int offset, int site) {
+        if (offset == NOT_FILLED) {
+            throw new IllegalStateException("Site " + site + " is not filled");
+        }
+        return offset;
+    }
+
+    static int encode(long event, long midnight) {
+        if (event == SolarMath.UP_ALL_DAY) return UP_ALL_DAY;
+        if (event == SolarMath.DOWN_ALL_DAY) return DOWN_ALL_DAY;
+        return (int) (event - midnight);
+    }
+
+    static long decode(int offset, long midnight) {
+        if (offset == UP_ALL_DAY) return SolarMath.UP_ALL_DAY;
+        if (offset == DOWN_ALL_DAY) return SolarMath.DOWN_ALL_DAY;
+        if (offset == NOT_FILLED) throw new IllegalStateException("Event is not filled");
+        return midnight + offset;
+    }
+
+    private static IntBuffer column(int size, int value) {
+        IntBuffer column = ByteBuffer.allocateDirect(size * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+        if (value != 0) {
+            for (int i = 0; i < size; i++) {
+                column.put(i, value);
+            }
+        }
+        return column;
+    }
+}
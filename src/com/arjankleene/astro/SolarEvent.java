@@ -0,0 +1,59 @@
+package com.arjankleene.astro;
+
+/**
+ * A single sunrise or sunset for a zenith, at a time in epoch seconds.
+ *
+ * Instances are immutable.
+ */
+public final class SolarEvent {
+
+    private final long time;
+    private final double zenith;
+    private final boolean rising;
+
+    public SolarEvent(long time, double zenith, boolean rising) {
+        this.time = time;
+        this.zenith = zenith;
+        this.rising = rising;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public double getZenith() {
+        return zenith;
+    }
+
+    /**
+     * Whether the sun rises above the zenith (sunrise or dawn), instead of setting below it.
+     */
+    public boolean isRising() {
+        return rising;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SolarEvent)) return false;
+
+        SolarEvent other = (SolarEvent) o;
+        return time == other.time
+                && Double.doubleToLongBits(zenith) == Double.doubleToLongBits(other.zenith)
+                && rising == other.rising;
+    }
+
+    @Override
+    public int hashCode() {
+        long zenithBits = Double.doubleToLongBits(zenith);
+        int result = (int) (time ^ (time >>> 32));
+        result = 31 * result + (int) (zenithBits ^ (zenithBits >>> 32));
+        result = 31 * result + (rising ? 1 : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "SolarEvent{time=" + time + ", zenith=" + zenith + ", rising=" + rising + "}";
+    }
+}
@@ -0,0 +1,280 @@
+package com.arjankleene.astro;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily iterate over the sunrises and sunsets of a location, without an end date.
+ *
+ * Events are calculated a day at a time, when the previous day has been consumed. The sun's
+ * position for the morning and the evening is calculated once per day and shared by all
+ * zeniths, and the date is carried forward from day to day without any calendars.
+ *
+ * All events of a local date fall within that date, so the events of each day are sorted by
+ * time to return them in chronological order. Usually the rising events come first (largest
+ * zenith first) followed by the setting events (smallest zenith first), but near midnight an
+ * event can wrap around to the other end of the date.
+ *
+ * Polar periods, in which the sun does not cross any of the zeniths, are skipped with a
+ * {@link PolarSearch} instead of checking every day. When there are no events at all for a
+ * whole year, the iteration ends.
+ */
+public class SolarEventIterator implements Iterator<SolarEvent> {
+
+    /** Number of days without any events after which the iteration ends */
+    private static final int MAX_EMPTY_DAYS = 366;
+
+    private final double latitude;
+    private final double longitude;
+    private final double lngHour;
+    private final double sinLatitude;
+    private final double cosLatitude;
+    private final int utcOffset;
+    private final long from;
+
+    /** Zeniths in descending order, so the morning events are usually in chronological order */
+    private final double[] zeniths;
+    private final double[] cosZeniths;
+
+    /** Searches for the end of the sun being above all zeniths, or below all of them */
+    private PolarSearch aboveSearch;
+    private PolarSearch belowSearch;
+
+    private long epochDay;
+    private int year;
+    private int dayOfYear;
+    private long nextYearStart;
+    private int emptyDays;
+    private int calculatedDays;
+
+    /** The events of the current day after the start time, sorted by time */
+    private final long[] times;
+    /** The zenith index of each event, negative (-index - 1) for setting events */
+    private final int[] events;
+    private int count;
+    private int position;
+
+    private SolarEvent next;
+    private boolean ended;
+
+    /**
+     * Iterate over the events of the official, civil, nautical and astronomical zeniths.
+     *
+     * @see #SolarEventIterator(double, double, int, long, double...)
+     */
+    public SolarEventIterator(double latitude, double longitude, int utcOffset, long from) {
+        this(latitude, longitude, utcOffset, from, SolarThresholds.getDefaultZeniths());
+    }
+
+    /**
+     * @param utcOffset offset of local standard time to UTC in seconds
+     * @param from      the first event time in epoch seconds; earlier events are skipped
+     */
+    public SolarEventIterator(double latitude, double longitude, int utcOffset, long from, double... zeniths) {
+        if (zeniths.length == 0) {
+            throw new IllegalArgumentException("At least one zenith is required");
+        }
+
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.lngHour = longitude / 15;
+        this.sinLatitude = SolarMath.sind(latitude);
+        this.cosLatitude = SolarMath.cosd(latitude);
+        this.utcOffset = utcOffset;
+        this.from = from;
+
+        this.zeniths = zeniths.clone();
+        Arrays.sort(this.zeniths);
+        for (int i = 0, j = this.zeniths.length - 1; i < j; i++, j--) {
+            double zenith = this.zeniths[i];
+            this.zeniths[i] = this.zeniths[j];
+            this.zeniths[j] = zenith;
+        }
+        this.cosZeniths = new double[this.zeniths.length];
+        for (int i = 0; i < this.zeniths.length; i++) {
+            cosZeniths[i] = SolarMath.cosd(this.zeniths[i]);
+        }
+        this.times = new long[2 * this.zeniths.length];
+        this.events = new int[2 * this.zeniths.length];
+
+        epochDay = Long.MIN_VALUE;
+        // start a day early, events of the previous local date may still be after the given time
+        startDay(SolarMath.floorDiv(from + utcOffset, SolarMath.SECONDS_PER_DAY) - 1);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && !ended) {
+            next = findNext();
+        }
+        return next != null;
+    }
+
+    @Override
+    public SolarEvent next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        SolarEvent event = next;
+        next = null;
+        return event;
+    }
+
+    /**
+     * Number of days calculated, including those of the polar searches.
+     */
+    int getCalculations() {
+        int calculations = calculatedDays;
+        if (aboveSearch != null) {
+            calculations += aboveSearch.getCalculations();
+        }
+        if (belowSearch != null) {
+            calculations += belowSearch.getCalculations();
+        }
+        return calculations;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Solar events can not be removed");
+    }
+
+    /**
+     * Return the next event of the current day, or move to the next day with events.
+     *
+     * @return the event, or null if a new day was started
+     */
+    private SolarEvent findNext() {
+        if (position < count) {
+            int event = events[position];
+            long time = times[position++];
+            return event >= 0
+                    ? new SolarEvent(time, zeniths[event], true)
+                    : new SolarEvent(time, zeniths[-event - 1], false);
+        }
+
+        if (emptyDays > MAX_EMPTY_DAYS) {
+            ended = true;
+            return null;
+        }
+        startDay(epochDay + 1);
+        return null;
+    }
+
+    /**
+     * Calculate and sort the events of a day, skipping ahead when the sun does not cross any
+     * of the zeniths.
+     */
+    private void startDay(long day) {
+        setDay(day);
+        count = 0;
+        position = 0;
+        calculatedDays++;
+
+        double riseT = SolarMath.getRiseT(dayOfYear, lngHour);
+        double riseSunLongitude = SolarMath.getSunLongitude(riseT);
+        double riseSinDec = SolarMath.getSinDeclination(riseSunLongitude);
+        double riseCosDec = SolarMath.getCosDeclination(riseSinDec);
+
+        double setT = SolarMath.getSetT(dayOfYear, lngHour);
+        double setSunLongitude = SolarMath.getSunLongitude(setT);
+        double setSinDec = SolarMath.getSinDeclination(setSunLongitude);
+        double setCosDec = SolarMath.getCosDeclination(setSinDec);
+
+        int polar = polar(riseSinDec, riseCosDec);
+        if (polar != 0 && polar == polar(setSinDec, setCosDec)) {
+            skipPolar(polar > 0);
+            return;
+        }
+
+        double riseRightAscension = SolarMath.getRightAscension(riseSunLongitude);
+        double setRightAscension = SolarMath.getRightAscension(setSunLongitude);
+        for (int index = 0; index < zeniths.length; index++) {
+            double cosH = SolarMath.getCosH(riseSinDec, riseCosDec, cosZeniths[index], sinLatitude, cosLatitude);
+            add(SolarMath.eventUtc(true, cosH, riseRightAscension, riseT, lngHour), index);
+        }
+        for (int index = zeniths.length - 1; index >= 0; index--) {
+            double cosH = SolarMath.getCosH(setSinDec, setCosDec, cosZeniths[index], sinLatitude, cosLatitude);
+            add(SolarMath.eventUtc(false, cosH, setRightAscension, setT, lngHour), -index - 1);
+        }
+
+        if (count == 0) {
+            emptyDays++;
+        } else {
+            emptyDays = 0;
+        }
+    }
+
+    /**
+     * Add an event in time order after the events that are not later.
+     */
+    private void add(double utc, int event) {
+        if (utc == SolarMath.POLAR_UP || utc == SolarMath.POLAR_DOWN) return;
+
+        long time = SolarMath.toEpochSecond(epochDay, utc, utcOffset);
+        if (time < from) return;
+
+        int i = count++;
+        for (; i > 0 && times[i - 1] > time; i--) {
+            times[i] = times[i - 1];
+            events[i] = events[i - 1];
+        }
+        times[i] = time;
+        events[i] = event;
+    }
+
+    /**
+     * Move to the day before the polar period ends; the sunrise state can change a day
+     * before the sunset state that the search uses.
+     *
+     * @param above whether the sun stays above all zeniths, instead of below them
+     */
+    private void skipPolar(boolean above) {
+        PolarSearch search;
+        if (above) {
+            if (aboveSearch == null) {
+                aboveSearch = new PolarSearch(latitude, longitude, zeniths[zeniths.length - 1], utcOffset);
+            }
+            search = aboveSearch;
+        } else {
+            if (belowSearch == null) {
+                belowSearch = new PolarSearch(latitude, longitude, zeniths[0], utcOffset);
+            }
+            search = belowSearch;
+        }
+
+        long end = search.findPolarEnd(epochDay);
+        if (end == PolarSearch.NOT_FOUND || end - epochDay > MAX_EMPTY_DAYS) {
+            emptyDays += MAX_EMPTY_DAYS + 1;
+            return;
+        }
+
+        long last = Math.max(epochDay, end - 2);
+        emptyDays += (int) (last - epochDay) + 1;
+        setDay(last);
+    }
+
+    private void setDay(long day) {
+        if (day != epochDay + 1) {
+            year = SolarMath.year(day);
+            dayOfYear = (int) (day - SolarMath.epochDay(year, 1, 1)) + 1;
+            nextYearStart = SolarMath.epochDay(year + 1, 1, 1);
+        } else if (day == nextYearStart) {
+            dayOfYear = 1;
+            nextYearStart = SolarMath.epochDay(++year + 1, 1, 1);
+        } else {
+            dayOfYear++;
+        }
+        epochDay = day;
+    }
+
+    /**
+     * @return 1 if the sun stays above the smallest zenith, -1 if it stays below the largest, or 0
+     */
+    private int polar(double sinDec, double cosDec) {
+        if (SolarMath.getCosH(sinDec, cosDec, cosZeniths[zeniths.length - 1], sinLatitude, cosLatitude) < -1) return 1;
+        if (SolarMath.getCosH(sinDec, cosDec, cosZeniths[0], sinLatitude, cosLatitude) > 1) return -1;
+        return 0;
+    }
+}
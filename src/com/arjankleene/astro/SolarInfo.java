@@ -6,7 +6,6 @@ package com.arjankleene.astro;
 
 import android.location.Location;
 
-import java.util.Calendar;
 import java.util.GregorianCalendar;
 
 /**
@@ -15,6 +14,10 @@ import java.util.GregorianCalendar;
  * Note that the result time is always given as a GregorianCalendar object.
  * Because it does not make sense to calculate time to the millisecond, that value
  * is explicitly set to 0.
+ *
+ * The calculations are done by {@link SolarMath}; the result calendars are only created
+ * when they are requested, and every request gets its own copy. Instances are immutable:
+ * the calendar of the date is copied, so it can be changed afterwards.
  */
 public class SolarInfo {
 
@@ -23,18 +26,13 @@ public class SolarInfo {
     public static final double ZENITH_NAUTICAL = 102;
     public static final double ZENITH_ASTRONOMICAL = 108;
 
-    private static final double DEGRAD = Math.PI / 180.0;
-    private static final double RADEG = 180.0 / Math.PI;
-
-    private GregorianCalendar date;
-    private double latitude;
-    private double longitude;
-    private double zenith;
+    private final GregorianCalendar date;
+    private final double latitude;
+    private final double longitude;
+    private final double zenith;
 
-    private Boolean isUpAllDay;
-    private Boolean isDownAllDay;
-    private GregorianCalendar sunrise;
-    private GregorianCalendar sunset;
+    private final long sunriseTime;
+    private final long sunsetTime;
 
     public SolarInfo(GregorianCalendar date, Location latlng) {
         this(date, latlng.getLatitude(), latlng.getLongitude(), ZENITH_OFFICIAL);
@@ -49,196 +47,172 @@ public class SolarInfo {
     }
 
     public SolarInfo(GregorianCalendar date, double latitude, double longitude, double zenith) {
-        this.date = date;
+        this(date, latitude, longitude, zenith, SolarCalculator.WILLIAMS);
+    }
+
+    /**
+     * Calculate sunrise and sunset with the given engine, like {@link SolarCalculator#NOAA}.
+     */
+    public SolarInfo(GregorianCalendar date, double latitude, double longitude, double zenith,
+                     SolarCalculator calculator) {
+        this.date = (GregorianCalendar) date.clone();
         this.latitude = latitude;
         this.longitude = longitude;
         this.zenith = zenith;
 
-        findSunRise();
-        findSunSet();
-    }
+        long start = SolarInstrumentation.start();
+        long epochDay = epochDay(date);
+        int utcOffset = utcOffset(date);
 
-    public GregorianCalendar getSunRise() {
-        return sunrise;
+        sunriseTime = calculator.sunRise(epochDay, latitude, longitude, zenith, utcOffset);
+        sunsetTime = calculator.sunSet(epochDay, latitude, longitude, zenith, utcOffset);
+        SolarInstrumentation.single(start, sunsetTime);
     }
 
-    public GregorianCalendar getSunSet() {
-        return sunset;
+    /**
+     * Calculate sunrise and sunset for a range of dates in UTC.
+     *
+     * @see #computeRange(double, double, long, int, double, int)
+     */
+    public static SolarRange computeRange(double latitude, double longitude, long startDay, int days, double zenith) {
+        return computeRange(latitude, longitude, startDay, days, zenith, 0);
     }
 
-    public boolean isUpAllDay() {
-        return isUpAllDay;
+    /**
+     * Calculate sunrise and sunset for a range of dates without creating any calendars.
+     *
+     * @param startDay  the first local date as days since 1970-01-01
+     * @param utcOffset offset of local standard time to UTC in seconds
+     */
+    public static SolarRange computeRange(double latitude, double longitude, long startDay, int days, double zenith,
+                                          int utcOffset) {
+        SolarRange range = new SolarRange(startDay, days);
+        computeRange(latitude, longitude, zenith, utcOffset, range);
+        return range;
     }
 
-    public boolean isDownAllDay() {
-        return isDownAllDay;
+    /**
+     * Calculate sunrise and sunset for a range of dates in a timezone.
+     *
+     * Events are placed on the local dates in standard time of the first date, like the
+     * SolarInfo constructors do. Use {@link ZoneOffsets#toLocalTimes} to convert the results
+     * to local clock times.
+     *
+     * @param startDay the first local date as days since 1970-01-01
+     */
+    public static SolarRange computeRange(double latitude, double longitude, long startDay, int days, double zenith,
+                                          ZoneOffsets zone) {
+        int utcOffset = zone.getStandardOffset(startDay * SolarMath.SECONDS_PER_DAY);
+        return computeRange(latitude, longitude, startDay, days, zenith, utcOffset);
     }
 
-    private void findSunRise() {
-        int dayOfYear = date.get(Calendar.DAY_OF_YEAR);
-
-        // convert longitude to hour value and calculate an approximate time
-        double lngHour = longitude / 15;
-        double t = dayOfYear + ((6 - lngHour) / 24);
-
-        // calculate the Sun's true longitude
-        double sunLongitude = getSunLongitude(t);
-
-        // calculate the Sun's declination
-        double cosH = getCosH(sunLongitude);
-        if (isUpOrDownAllDay(cosH)) return;
-
-        // finish calculating H and convert into hours
-        double h = 360.0 - acosd(cosH);
-        h = h / 15.0;
-
-        // calculate the Sun's right ascension
-        double rightAscension = getRightAscension(sunLongitude);
-
-        // calculate local mean time of rising/setting (based on geographical position)
-        t = h + rightAscension - (0.06571 * t) - 6.622;
-
-        // adjust back to UTC
-        double utc = (t - lngHour);
-
-        sunrise = (GregorianCalendar) date.clone();
-
-        updateEventDateWithTime(sunrise, utc);
+    /**
+     * Calculate sunrise and sunset for all dates of a preallocated range.
+     *
+     * This allows reusing the same arrays for several locations.
+     */
+    public static void computeRange(double latitude, double longitude, double zenith, int utcOffset,
+                                    SolarRange range) {
+        computeRange(latitude, longitude, zenith, utcOffset, range, SolarCalculator.WILLIAMS);
     }
 
-    private void findSunSet() {
-        int dayOfYear = date.get(Calendar.DAY_OF_YEAR);
-
-        // convert longitude to hour value and calculate an approximate time
-        double lngHour = longitude / 15;
-        double t = dayOfYear + ((18 - lngHour) / 24);
-
-        // calculate the Sun's true longitude
-        double sunLongitude = getSunLongitude(t);
-
-        // calculate the Sun's declination
-        double cosH = getCosH(sunLongitude);
-        if (isUpOrDownAllDay(cosH)) return;
-
-        // finish calculating H and convert into hours
-        double h = acosd(cosH);
-        h = h / 15;
-
-        // calculate the Sun's right ascension
-        double rightAscension = getRightAscension(sunLongitude);
-
-        // calculate local mean time of rising/setting based on geographical position
-        t = h + rightAscension - (0.06571 * t) - 6.622;
-
-        // adjust back to UTC
-        double utc = (t - lngHour);
-
-        sunset = (GregorianCalendar) date.clone();
-
-        updateEventDateWithTime(sunset, utc);
+    /**
+     * Calculate sunrise and sunset for all dates of a preallocated range with the given engine.
+     */
+    public static void computeRange(double latitude, double longitude, double zenith, int utcOffset,
+                                    SolarRange range, SolarCalculator calculator) {
+        long start = SolarInstrumentation.start();
+        calculator.fillRange(latitude, longitude, range.getStartDay(), range.getDays(), zenith, utcOffset,
+                range.getSunRises(), range.getSunSets(), range.getStates());
+        SolarInstrumentation.bulk(start, range.getSunSets(), range.getDays());
     }
 
     /**
-     * Set the event date to the given utc time
+     * Calculate sunrise and sunset for the official, civil, nautical and astronomical zeniths at once.
      *
-     * Takes DST into account if that is applicable at the given time for the timezone
-     * that is specified in the GregorianCalendar date object.
+     * @param epochDay  the local date as days since 1970-01-01
+     * @param utcOffset offset of local standard time to UTC in seconds
      */
-    private void updateEventDateWithTime(GregorianCalendar date, double utc) {
-        double localTime = convertToLocalTime(utc);
-
-        int hours = (int) localTime;
-        localTime = (localTime - hours) * 60;
-
-        int minutes = (int) localTime;
-        localTime = (localTime - minutes) * 60;
-
-        int seconds = (int) localTime;
-
-        date.set(Calendar.HOUR_OF_DAY, hours);
-        date.set(Calendar.MINUTE, minutes);
-        date.set(Calendar.SECOND, seconds);
-        date.set(Calendar.MILLISECOND, 0);
-
-        // The DST offset may cause the hours value to move to the next day
-        hours += date.get(Calendar.DST_OFFSET) / 3600000;
-        date.set(Calendar.HOUR_OF_DAY, hours);
+    public static SolarThresholds computeThresholds(long epochDay, double latitude, double longitude, int utcOffset) {
+        return computeThresholds(epochDay, latitude, longitude, utcOffset, SolarThresholds.getDefaultZeniths());
     }
 
     /**
-     * Convert given universal time to local time, keeping in [0, 24) range.
+     * Calculate sunrise and sunset for any number of zeniths at once.
      *
-     * The utc time does not have to be in the output range.
+     * The position of the sun is only calculated once for all zeniths.
+     *
+     * @param epochDay  the local date as days since 1970-01-01
+     * @param utcOffset offset of local standard time to UTC in seconds
      */
-    private double convertToLocalTime(double utcTime) {
-        double localTime = utcTime + date.get(Calendar.ZONE_OFFSET) / 3600000;
-        localTime = (localTime + 24) % 24;
-        return localTime;
+    public static SolarThresholds computeThresholds(long epochDay, double latitude, double longitude, int utcOffset,
+                                                    double... zeniths) {
+        long start = SolarInstrumentation.start();
+        SolarThresholds thresholds = new SolarThresholds(epochDay, zeniths);
+        SolarMath.fillZeniths(epochDay, latitude, longitude, utcOffset, zeniths,
+                thresholds.getSunRises(), thresholds.getSunSets());
+        SolarInstrumentation.bulk(start, thresholds.getSunSets(), zeniths.length);
+        return thresholds;
     }
 
-    private double getSunLongitude(double t) {
-        // calculate the Sun's mean anomaly
-        double m = (0.9856 * t) - 3.289;
-
-        // calculate the Sun's true longitude
-        return (m + (1.916 * sind(m)) + (0.020 * sind(2 * m)) + 282.634) % 360;
+    /**
+     * Get the sunrise as a new calendar, or null if the sun does not rise.
+     */
+    public GregorianCalendar getSunRise() {
+        return toCalendar(sunriseTime);
     }
 
-    private double getRightAscension(double l) {
-        // calculate the Sun's right ascension
-        double ra = atand(0.91764 * tand(l));
-
-        // right ascension value needs to be in the same quadrant as L
-        ra = ra + ((Math.floor(l / 90) * 90) - (Math.floor(ra / 90) * 90));
-
-        // right ascension value needs to be converted into hours
-        ra = ra / 15;
-
-        return ra;
+    /**
+     * Get the sunset as a new calendar, or null if the sun does not set.
+     */
+    public GregorianCalendar getSunSet() {
+        return toCalendar(sunsetTime);
     }
 
-    private double getCosH(double l) {
-        double sinDec = 0.39782 * sind(l);
-        double cosDec = cosd(asind(sinDec));
-
-        // calculate the Sun's local hour angle
-        return (cosd(zenith) - (sinDec * sind(latitude))) / (cosDec * cosd(latitude));
+    /**
+     * Get the sunrise and sunset as an immutable value, which can be shared between threads.
+     */
+    public SolarTimes getTimes() {
+        return new SolarTimes(sunriseTime, sunsetTime);
     }
 
-    private boolean isUpOrDownAllDay(double cosH) {
-        if (cosH > 1) {
-            // Sun never rises on this location on the specified date
-            isDownAllDay = true;
-            isUpAllDay = false;
-            return true;
-        } else if (cosH < -1) {
-            // Sun never sets on this location on the specified date
-            isDownAllDay = false;
-            isUpAllDay = true;
-            return true;
-        } else {
-            isDownAllDay = false;
-            isUpAllDay = false;
-        }
-        return false;
+    public boolean isUpAllDay() {
+        return sunsetTime == SolarMath.UP_ALL_DAY;
     }
 
-    private double sind(double num) {
-        return Math.sin(num * DEGRAD);
-    }
-    private double cosd(double num) {
-        return Math.cos(num * DEGRAD);
-    }
-    private double tand(double num) {
-        return Math.tan(num * DEGRAD);
+    public boolean isDownAllDay() {
+        return sunsetTime == SolarMath.DOWN_ALL_DAY;
     }
-    private double asind(double num) {
-        return RADEG * Math.asin(num);
+
+    /**
+     * Get the local date of the calendar in its timezone as days since 1970-01-01.
+     */
+    public static long epochDay(GregorianCalendar date) {
+        return ZoneOffsets.forZone(date.getTimeZone())
+                .getEpochDay(SolarMath.floorDiv(date.getTimeInMillis(), 1000));
     }
-    private double acosd(double num) {
-        return RADEG * Math.acos(num);
+
+    /**
+     * Get the offset in seconds that is used to place the events on the local date of the calendar.
+     *
+     * This is the standard offset of the timezone, without daylight saving time.
+     */
+    static int utcOffset(GregorianCalendar date) {
+        return ZoneOffsets.forZone(date.getTimeZone())
+                .getStandardOffset(SolarMath.floorDiv(date.getTimeInMillis(), 1000));
     }
-    private double atand(double num) {
-        return RADEG * Math.atan(num);
+
+    /**
+     * Create the calendar for an event time, in the timezone of the requested date.
+     *
+     * Takes DST into account if that is applicable at the given time for the timezone
+     * that is specified in the GregorianCalendar date object.
+     */
+    private GregorianCalendar toCalendar(long event) {
+        if (!SolarMath.isEvent(event)) return null;
+
+        GregorianCalendar calendar = (GregorianCalendar) date.clone();
+        calendar.setTimeInMillis(event * 1000);
+        return calendar;
     }
 }
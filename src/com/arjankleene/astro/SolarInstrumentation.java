@@ -0,0 +1,92 @@
+package com.arjankleene.astro;
+
+/**
+ * Global registration of the {@link SolarMetrics} that the astro engine reports to.
+ *
+ * By default nothing is measured, and the instrumented calls only cost a volatile read.
+ * Instrumented are the SolarInfo constructors and bulk methods, DaylightGrid, DaylightStatistics
+ * and SolarCache.
+ */
+public final class SolarInstrumentation {
+
+    private static volatile SolarMetrics metrics = SolarMetrics.NONE;
+
+    private SolarInstrumentation() {
+    }
+
+    /**
+     * @param metrics the metrics to report to, or null to stop measuring
+     */
+    public static void setMetrics(SolarMetrics metrics) {
+        SolarInstrumentation.metrics = metrics == null ? SolarMetrics.NONE : metrics;
+    }
+
+    public static SolarMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the start time for a measurement, or 0 when nothing is measured.
+     */
+    static long start() {
+        return metrics == SolarMetrics.NONE ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Report a single calculation, with the event that determines its polar state.
+     */
+    static void single(long start, long event) {
+        SolarMetrics current = metrics;
+        if (start == 0 || current == SolarMetrics.NONE) return;
+
+        current.calculation(System.nanoTime() - start);
+        byte state = SolarMath.state(event);
+        if (state != SolarMath.STATE_NORMAL) {
+            current.polar(state);
+        }
+    }
+
+    /**
+     * Report a bulk calculation, with the events that determine the polar states.
+     */
+    static void bulk(long start, long[] events, int count) {
+        SolarMetrics current = metrics;
+        if (start == 0 || current == SolarMetrics.NONE) return;
+
+        current.bulkCalculation(count, System.nanoTime() - start);
+        for (int i = 0; i < count; i++) {
+            byte state = SolarMath.state(events[i]);
+            if (state != SolarMath.STATE_NORMAL) {
+                current.polar(state);
+            }
+        }
+    }
+
+    /**
+     * Report a bulk calculation of which the polar days were counted by the caller.
+     */
+    static void bulk(long start, int count, int upAllDay, int downAllDay) {
+        SolarMetrics current = metrics;
+        if (start == 0 || current == SolarMetrics.NONE) return;
+
+        current.bulkCalculation(count, System.nanoTime() - start);
+        for (int i = 0; i < upAllDay; i++) {
+            current.polar(SolarMath.STATE_UP_ALL_DAY);
+        }
+        for (int i = 0; i < downAllDay; i++) {
+            current.polar(SolarMath.STATE_DOWN_ALL_DAY);
+        }
+    }
+
+    static void cacheHit() {
+        metrics.cacheHit();
+    }
+
+    static void cacheMiss() {
+        metrics.cacheMiss();
+    }
+
+    static void cacheEviction() {
+        metrics.cacheEviction();
+    }
+}
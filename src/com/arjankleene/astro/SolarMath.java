@@ -0,0 +1,461 @@
+/**
+ * Source for the calculations: http://williams.best.vwh.net/sunrise_sunset_algorithm.htm
+ */
+
+package com.arjankleene.astro;
+
+/**
+ * Allocation-free calculation kernel for sunrise and sunset.
+ *
+ * All inputs and results are primitives, so hot loops do not need any Calendar objects:
+ * a date is given as an epoch day (the number of days since 1970-01-01 in local time),
+ * offsets to UTC are given in seconds and event times are returned as epoch seconds.
+ *
+ * When the sun does not rise or set on a day, the event is one of the sentinel values
+ * {@link #UP_ALL_DAY} or {@link #DOWN_ALL_DAY} instead of a time.
+ */
+public final class SolarMath {
+
+    public static final byte STATE_NORMAL = 0;
+    public static final byte STATE_UP_ALL_DAY = 1;
+    public static final byte STATE_DOWN_ALL_DAY = 2;
+
+    /** Event value when the sun never sets on the specified date */
+    public static final long UP_ALL_DAY = Long.MAX_VALUE;
+    /** Event value when the sun never rises on the specified date */
+    public static final long DOWN_ALL_DAY = Long.MIN_VALUE;
+
+    /** Length of a day in seconds, leap seconds ignored */
+    public static final int SECONDS_PER_DAY = 86400;
+
+    static final double DEGRAD = Math.PI / 180.0;
+    static final double RADEG = 180.0 / Math.PI;
+
+    /** UTC hour value of an event on a day on which the sun never sets */
+    static final double POLAR_UP = Double.POSITIVE_INFINITY;
+    /** UTC hour value of an event on a day on which the sun never rises */
+    static final double POLAR_DOWN = Double.NEGATIVE_INFINITY;
+
+    private SolarMath() {
+    }
+
+    /**
+     * Calculate the sunrise on the given date.
+     *
+     * @param epochDay  the local date as days since 1970-01-01
+     * @param utcOffset offset of local standard time to UTC in seconds, this determines
+     *                  the calendar day the event is placed on
+     * @return the sunrise in epoch seconds, or one of the polar sentinel values
+     */
+    public static long sunRise(long epochDay, double latitude, double longitude, double zenith, int utcOffset) {
+        double utc = riseUtc(dayOfYear(epochDay), longitude / 15, cosd(zenith), sind(latitude), cosd(latitude));
+        return toEpochSecond(epochDay, utc, utcOffset);
+    }
+
+    /**
+     * Calculate the sunset on the given date.
+     *
+     * @param epochDay  the local date as days since 1970-01-01
+     * @param utcOffset offset of local standard time to UTC in seconds, this determines
+     *                  the calendar day the event is placed on
+     * @return the sunset in epoch seconds, or one of the polar sentinel values
+     */
+    public static long sunSet(long epochDay, double latitude, double longitude, double zenith, int utcOffset) {
+        double utc = setUtc(dayOfYear(epochDay), longitude / 15, cosd(zenith), sind(latitude), cosd(latitude));
+        return toEpochSecond(epochDay, utc, utcOffset);
+    }
+
+    /**
+     * Calculate sunrise and sunset for a range of consecutive dates.
+     *
+     * The results are written into the given arrays, starting at index 0. Values that do not
+     * depend on the date are only computed once.
+     *
+     * @param startDay  the first local date as days since 1970-01-01
+     * @param utcOffset offset of local standard time to UTC in seconds
+     * @param sunrises  receives the sunrise of each date, see {@link #sunRise}
+     * @param sunsets   receives the sunset of each date, see {@link #sunSet}
+     * @param states    receives the polar state of each date, based on the sunset
+     *                  like {@link SolarInfo#isUpAllDay()} and {@link SolarInfo#isDownAllDay()}
+     */
+    public static void fillRange(double latitude, double longitude, long startDay, int days, double zenith,
+                                 int utcOffset, long[] sunrises, long[] sunsets, byte[] states) {
+        if (days < 0) {
+            throw new IllegalArgumentException("Number of days must not be negative: " + days);
+        }
+        if (sunrises.length < days || sunsets.length < days || states.length < days) {
+            throw new IllegalArgumentException("Result arrays must hold at least " + days + " days");
+        }
+
+        double lngHour = longitude / 15;
+        double cosZenith = cosd(zenith);
+        double sinLatitude = sind(latitude);
+        double cosLatitude = cosd(latitude);
+
+        int year = year(startDay);
+        int dayOfYear = (int) (startDay - epochDay(year, 1, 1)) + 1;
+        long nextYearStart = epochDay(year + 1, 1, 1);
+
+        long epochDay = startDay;
+        for (int i = 0; i < days; i++, epochDay++, dayOfYear++) {
+            if (epochDay == nextYearStart) {
+                dayOfYear = 1;
+                nextYearStart = epochDay(++year + 1, 1, 1);
+            }
+
+            double rise = riseUtc(dayOfYear, lngHour, cosZenith, sinLatitude, cosLatitude);
+            double set = setUtc(dayOfYear, lngHour, cosZenith, sinLatitude, cosLatitude);
+
+            sunrises[i] = toEpochSecond(epochDay, rise, utcOffset);
+            sunsets[i] = toEpochSecond(epochDay, set, utcOffset);
+            states[i] = state(sunsets[i]);
+        }
+    }
+
+    /**
+     * Calculate sunrise and sunset for several zeniths on the same date.
+     *
+     * The sun's longitude, declination and right ascension do not depend on the zenith,
+     * so they are only calculated once for the morning and once for the evening.
+     *
+     * @param epochDay  the local date as days since 1970-01-01
+     * @param utcOffset offset of local standard time to UTC in seconds
+     * @param sunrises  receives the sunrise for each zenith, see {@link #sunRise}
+     * @param sunsets   receives the sunset for each zenith, see {@link #sunSet}
+     */
+    public static void fillZeniths(long epochDay, double latitude, double longitude, int utcOffset,
+                                   double[] zeniths, long[] sunrises, long[] sunsets) {
+        if (sunrises.length < zeniths.length || sunsets.length < zeniths.length) {
+            throw new IllegalArgumentException("Result arrays must hold at least " + zeniths.length + " zeniths");
+        }
+
+        int dayOfYear = dayOfYear(epochDay);
+        double lngHour = longitude / 15;
+        double sinLatitude = sind(latitude);
+        double cosLatitude = cosd(latitude);
+
+        double riseT = getRiseT(dayOfYear, lngHour);
+        double riseLongitude = getSunLongitude(riseT);
+        double riseSinDec = getSinDeclination(riseLongitude);
+        double riseCosDec = getCosDeclination(riseSinDec);
+        double riseRightAscension = getRightAscension(riseLongitude);
+
+        double setT = getSetT(dayOfYear, lngHour);
+        double setLongitude = getSunLongitude(setT);
+        double setSinDec = getSinDeclination(setLongitude);
+        double setCosDec = getCosDeclination(setSinDec);
+        double setRightAscension = getRightAscension(setLongitude);
+
+        for (int i = 0; i < zeniths.length; i++) {
+            double cosZenith = cosd(zeniths[i]);
+
+            double riseCosH = getCosH(riseSinDec, riseCosDec, cosZenith, sinLatitude, cosLatitude);
+            double rise = eventUtc(true, riseCosH, riseRightAscension, riseT, lngHour);
+            sunrises[i] = toEpochSecond(epochDay, rise, utcOffset);
+
+            double setCosH = getCosH(setSinDec, setCosDec, cosZenith, sinLatitude, cosLatitude);
+            double set = eventUtc(false, setCosH, setRightAscension, setT, lngHour);
+            sunsets[i] = toEpochSecond(epochDay, set, utcOffset);
+        }
+    }
+
+    /**
+     * Calculate the UTC hours of sunrise and sunset for several zeniths on the same day, or
+     * the polar values, like {@link #fillZeniths} does for epoch seconds.
+     *
+     * The location and zeniths are given as precomputed values, so loops can hoist them.
+     */
+    static void fillZenithsUtc(int dayOfYear, double lngHour, double sinLatitude, double cosLatitude,
+                               double[] cosZeniths, double[] rises, double[] sets) {
+        double riseT = getRiseT(dayOfYear, lngHour);
+        double riseLongitude = getSunLongitude(riseT);
+        double riseSinDec = getSinDeclination(riseLongitude);
+        double riseCosDec = getCosDeclination(riseSinDec);
+        double riseRightAscension = getRightAscension(riseLongitude);
+
+        double setT = getSetT(dayOfYear, lngHour);
+        double setLongitude = getSunLongitude(setT);
+        double setSinDec = getSinDeclination(setLongitude);
+        double setCosDec = getCosDeclination(setSinDec);
+        double setRightAscension = getRightAscension(setLongitude);
+
+        for (int i = 0; i < cosZeniths.length; i++) {
+            double riseCosH = getCosH(riseSinDec, riseCosDec, cosZeniths[i], sinLatitude, cosLatitude);
+            rises[i] = eventUtc(true, riseCosH, riseRightAscension, riseT, lngHour);
+
+            double setCosH = getCosH(setSinDec, setCosDec, cosZeniths[i], sinLatitude, cosLatitude);
+            sets[i] = eventUtc(false, setCosH, setRightAscension, setT, lngHour);
+        }
+    }
+
+    /**
+     * Get the polar state code for an event value returned by this class.
+     */
+    public static byte state(long event) {
+        if (event == UP_ALL_DAY) {
+            return STATE_UP_ALL_DAY;
+        } else if (event == DOWN_ALL_DAY) {
+            return STATE_DOWN_ALL_DAY;
+        }
+        return STATE_NORMAL;
+    }
+
+    /**
+     * Whether the event value is an actual time and not a polar sentinel value.
+     */
+    public static boolean isEvent(long event) {
+        return event != UP_ALL_DAY && event != DOWN_ALL_DAY;
+    }
+
+    /**
+     * Convert a date in the proleptic Gregorian calendar to an epoch day.
+     *
+     * @param month the month of the year, from 1 (January) to 12 (December)
+     */
+    public static long epochDay(int year, int month, int dayOfMonth) {
+        // days_from_civil by Howard Hinnant, with years starting on March 1st
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + dayOfMonth - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Get the year of the given epoch day.
+     */
+    public static int year(long epochDay) {
+        long z = epochDay + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long year = yearOfEra + era * 400;
+        // the internal year starts on March 1st, so January and February belong to the next one
+        return (int) (dayOfYear >= 306 ? year + 1 : year);
+    }
+
+    /**
+     * Get the day of the year of the given epoch day, starting at 1 for January 1st.
+     */
+    public static int dayOfYear(long epochDay) {
+        return (int) (epochDay - epochDay(year(epochDay), 1, 1)) + 1;
+    }
+
+    /**
+     * Get the month of the given epoch day, from 1 (January) to 12 (December).
+     */
+    public static int month(long epochDay) {
+        long shiftedMonth = (5 * marchDayOfYear(epochDay) + 2) / 153;
+        return (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+    }
+
+    /**
+     * Get the day of the month of the given epoch day, starting at 1.
+     */
+    public static int dayOfMonth(long epochDay) {
+        long dayOfYear = marchDayOfYear(epochDay);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        return (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+    }
+
+    /**
+     * Get the day of a year that starts on March 1st, from 0, so leap days come last.
+     */
+    private static long marchDayOfYear(long epochDay) {
+        int year = year(epochDay);
+        long marchFirst = epochDay(year, 3, 1);
+        return epochDay - (epochDay >= marchFirst ? marchFirst : epochDay(year - 1, 3, 1));
+    }
+
+    /**
+     * Calculate the UTC hour of sunrise, or one of the polar values.
+     *
+     * The location and zenith are given as precomputed values, so loops can hoist them.
+     */
+    static double riseUtc(int dayOfYear, double lngHour, double cosZenith, double sinLatitude, double cosLatitude) {
+        // calculate an approximate time
+        double t = getRiseT(dayOfYear, lngHour);
+
+        // calculate the Sun's true longitude
+        double sunLongitude = getSunLongitude(t);
+
+        // calculate the Sun's declination
+        double cosH = getCosH(sunLongitude, cosZenith, sinLatitude, cosLatitude);
+        if (cosH > 1) return POLAR_DOWN;
+        if (cosH < -1) return POLAR_UP;
+
+        return toUtc(getRiseHourAngle(cosH), getRightAscension(sunLongitude), t, lngHour);
+    }
+
+    /**
+     * Calculate the UTC hour of sunset, or one of the polar values.
+     *
+     * The location and zenith are given as precomputed values, so loops can hoist them.
+     */
+    static double setUtc(int dayOfYear, double lngHour, double cosZenith, double sinLatitude, double cosLatitude) {
+        // calculate an approximate time
+        double t = getSetT(dayOfYear, lngHour);
+
+        // calculate the Sun's true longitude
+        double sunLongitude = getSunLongitude(t);
+
+        // calculate the Sun's declination
+        double cosH = getCosH(sunLongitude, cosZenith, sinLatitude, cosLatitude);
+        if (cosH > 1) return POLAR_DOWN;
+        if (cosH < -1) return POLAR_UP;
+
+        return toUtc(getSetHourAngle(cosH), getRightAscension(sunLongitude), t, lngHour);
+    }
+
+    /**
+     * Calculate the UTC hour of an event from a precomputed local hour angle, or one of the polar values.
+     *
+     * @param rising whether the morning (sunrise) branch of the hour angle is wanted
+     */
+    static double eventUtc(boolean rising, double cosH, double rightAscension, double t, double lngHour) {
+        if (cosH > 1) return POLAR_DOWN;
+        if (cosH < -1) return POLAR_UP;
+
+        double h = rising ? getRiseHourAngle(cosH) : getSetHourAngle(cosH);
+        return toUtc(h, rightAscension, t, lngHour);
+    }
+
+    /**
+     * Approximate time of sunrise in days of the year.
+     */
+    static double getRiseT(int dayOfYear, double lngHour) {
+        return dayOfYear + ((6 - lngHour) / 24);
+    }
+
+    /**
+     * Approximate time of sunset in days of the year.
+     */
+    static double getSetT(int dayOfYear, double lngHour) {
+        return dayOfYear + ((18 - lngHour) / 24);
+    }
+
+    /**
+     * Finish calculating H for sunrise and convert into hours.
+     */
+    static double getRiseHourAngle(double cosH) {
+        double h = 360.0 - acosd(cosH);
+        return h / 15.0;
+    }
+
+    /**
+     * Finish calculating H for sunset and convert into hours.
+     */
+    static double getSetHourAngle(double cosH) {
+        double h = acosd(cosH);
+        return h / 15;
+    }
+
+    /**
+     * Calculate local mean time of rising/setting and adjust it back to UTC.
+     */
+    static double toUtc(double h, double rightAscension, double t, double lngHour) {
+        t = h + rightAscension - (0.06571 * t) - 6.622;
+        return t - lngHour;
+    }
+
+    /**
+     * Calculate the Sun's local hour angle in degrees at a local mean time.
+     *
+     * This is the local mean time relation used for rising and setting, solved for H.
+     */
+    static double getHourAngle(double localMeanTime, double rightAscension, double t) {
+        return (localMeanTime - rightAscension + (0.06571 * t) + 6.622) * 15;
+    }
+
+    /**
+     * Place the UTC hour of an event on the given local date.
+     *
+     * The event time is truncated to whole seconds.
+     */
+    static long toEpochSecond(long epochDay, double utc, int utcOffset) {
+        if (utc == POLAR_UP) return UP_ALL_DAY;
+        if (utc == POLAR_DOWN) return DOWN_ALL_DAY;
+
+        // convert to local time, keeping in [0, 24) range
+        double localTime = utc + utcOffset / 3600.0;
+        localTime = (localTime + 24) % 24;
+
+        int hours = (int) localTime;
+        localTime = (localTime - hours) * 60;
+
+        int minutes = (int) localTime;
+        localTime = (localTime - minutes) * 60;
+
+        int seconds = (int) localTime;
+
+        return epochDay * SECONDS_PER_DAY + hours * 3600 + minutes * 60 + seconds - utcOffset;
+    }
+
+    static double getSunLongitude(double t) {
+        // calculate the Sun's mean anomaly
+        double m = (0.9856 * t) - 3.289;
+
+        // calculate the Sun's true longitude
+        return (m + (1.916 * sind(m)) + (0.020 * sind(2 * m)) + 282.634) % 360;
+    }
+
+    static double getRightAscension(double l) {
+        // calculate the Sun's right ascension
+        double ra = atand(0.91764 * tand(l));
+
+        // right ascension value needs to be in the same quadrant as L
+        ra = ra + ((Math.floor(l / 90) * 90) - (Math.floor(ra / 90) * 90));
+
+        // right ascension value needs to be converted into hours
+        ra = ra / 15;
+
+        return ra;
+    }
+
+    static double getCosH(double l, double cosZenith, double sinLatitude, double cosLatitude) {
+        double sinDec = getSinDeclination(l);
+        return getCosH(sinDec, getCosDeclination(sinDec), cosZenith, sinLatitude, cosLatitude);
+    }
+
+    static double getCosH(double sinDec, double cosDec, double cosZenith, double sinLatitude, double cosLatitude) {
+        // calculate the Sun's local hour angle
+        return (cosZenith - (sinDec * sinLatitude)) / (cosDec * cosLatitude);
+    }
+
+    static double getSinDeclination(double l) {
+        return 0.39782 * sind(l);
+    }
+
+    static double getCosDeclination(double sinDec) {
+        return cosd(asind(sinDec));
+    }
+
+    static long floorDiv(long x, long y) {
+        long q = x / y;
+        if ((x % y != 0) && ((x ^ y) < 0)) {
+            q--;
+        }
+        return q;
+    }
+
+    static double sind(double num) {
+        return Math.sin(num * DEGRAD);
+    }
+    static double cosd(double num) {
+        return Math.cos(num * DEGRAD);
+    }
+    static double tand(double num) {
+        return Math.tan(num * DEGRAD);
+    }
+    static double asind(double num) {
+        return RADEG * Math.asin(num);
+    }
+    static double acosd(double num) {
+        return RADEG * Math.acos(num);
+    }
+    static double atand(double num) {
+        return RADEG * Math.atan(num);
+    }
+}
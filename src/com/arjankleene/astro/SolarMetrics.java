@@ -0,0 +1,60 @@
+package com.arjankleene.astro;
+
+/**
+ * Receives measurements from the astro engine.
+ *
+ * Register an implementation with {@link SolarInstrumentation#setMetrics}. Implementations
+ * are called from the calculating threads, so they must be thread-safe and cheap.
+ */
+public interface SolarMetrics {
+
+    /** Ignores all measurements; this is the default */
+    SolarMetrics NONE = new SolarMetrics() {
+        @Override
+        public void calculation(long nanos) {
+        }
+
+        @Override
+        public void bulkCalculation(int count, long nanos) {
+        }
+
+        @Override
+        public void polar(byte state) {
+        }
+
+        @Override
+        public void cacheHit() {
+        }
+
+        @Override
+        public void cacheMiss() {
+        }
+
+        @Override
+        public void cacheEviction() {
+        }
+    };
+
+    /**
+     * A single sunrise/sunset calculation took the given time.
+     */
+    void calculation(long nanos);
+
+    /**
+     * A bulk call calculated the given number of results in the given time.
+     */
+    void bulkCalculation(int count, long nanos);
+
+    /**
+     * A result was a polar day or night.
+     *
+     * @param state {@link SolarMath#STATE_UP_ALL_DAY} or {@link SolarMath#STATE_DOWN_ALL_DAY}
+     */
+    void polar(byte state);
+
+    void cacheHit();
+
+    void cacheMiss();
+
+    void cacheEviction();
+}
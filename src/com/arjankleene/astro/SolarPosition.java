@@ -0,0 +1,119 @@
+package com.arjankleene.astro;
+
+/**
+ * Continuous position of the sun (elevation and azimuth) for a fixed location.
+ *
+ * Uses the same mean anomaly, true longitude and right ascension as {@link SolarMath}; the
+ * sun's hour angle follows from the local mean time relation of that algorithm. An instance
+ * is meant to be reused: {@link #update(long)} does not allocate, so it can be called many
+ * times a second, for example to drive a solar tracker.
+ *
+ * The elevation is geometric, so it does not include atmospheric refraction. Azimuth is
+ * measured in degrees clockwise from north.
+ *
+ * Instances are not thread-safe.
+ */
+public class SolarPosition {
+
+    private static final long MILLIS_PER_DAY = SolarMath.SECONDS_PER_DAY * 1000L;
+
+    private final double latitude;
+    private final double longitude;
+    private final double lngHour;
+    private final double sinLatitude;
+    private final double cosLatitude;
+
+    private long epochDay = Long.MIN_VALUE;
+    private int dayOfYear;
+
+    private double elevation;
+    private double azimuth;
+
+    public SolarPosition(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.lngHour = longitude / 15;
+        this.sinLatitude = SolarMath.sind(latitude);
+        this.cosLatitude = SolarMath.cosd(latitude);
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Calculate the position of the sun at the given time.
+     */
+    public void update(long epochMillis) {
+        long day = SolarMath.floorDiv(epochMillis, MILLIS_PER_DAY);
+        compute(dayOfYear(day), (epochMillis - day * MILLIS_PER_DAY) / 3600000.0);
+    }
+
+    /**
+     * Elevation above the horizon in degrees at the last update.
+     */
+    public double getElevation() {
+        return elevation;
+    }
+
+    /**
+     * Azimuth in degrees clockwise from north, in the range [0, 360), at the last update.
+     */
+    public double getAzimuth() {
+        return azimuth;
+    }
+
+    /**
+     * Calculate the position of the sun for a time series with a fixed step.
+     *
+     * The number of positions is the length of the elevations array. Afterwards, the
+     * getters return the position at the last time of the series.
+     */
+    public void fill(long startMillis, long stepMillis, double[] elevations, double[] azimuths) {
+        if (azimuths.length < elevations.length) {
+            throw new IllegalArgumentException("Azimuth array must hold at least " + elevations.length + " values");
+        }
+
+        long time = startMillis;
+        for (int i = 0; i < elevations.length; i++, time += stepMillis) {
+            update(time);
+            elevations[i] = elevation;
+            azimuths[i] = azimuth;
+        }
+    }
+
+    /**
+     * Get the day of the year, only converting the date when it changed since the last update.
+     */
+    private int dayOfYear(long day) {
+        if (day != epochDay) {
+            dayOfYear = day == epochDay + 1 && dayOfYear < 365 ? dayOfYear + 1 : SolarMath.dayOfYear(day);
+            epochDay = day;
+        }
+        return dayOfYear;
+    }
+
+    private void compute(int dayOfYear, double utcHours) {
+        // time in days of the year, like the approximate times of SolarMath
+        double t = dayOfYear + utcHours / 24;
+
+        double sunLongitude = SolarMath.getSunLongitude(t);
+        double sinDec = SolarMath.getSinDeclination(sunLongitude);
+        double cosDec = SolarMath.getCosDeclination(sinDec);
+        double rightAscension = SolarMath.getRightAscension(sunLongitude);
+
+        double hourAngle = SolarMath.getHourAngle(utcHours + lngHour, rightAscension, t);
+        double sinH = SolarMath.sind(hourAngle);
+        double cosH = SolarMath.cosd(hourAngle);
+
+        double sinElevation = sinLatitude * sinDec + cosLatitude * cosDec * cosH;
+        elevation = SolarMath.asind(Math.max(-1, Math.min(1, sinElevation)));
+
+        double az = SolarMath.RADEG * Math.atan2(-cosDec * sinH, sinDec * cosLatitude - cosDec * sinLatitude * cosH);
+        azimuth = az < 0 ? az + 360 : az;
+    }
+}
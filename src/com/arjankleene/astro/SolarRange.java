@@ -0,0 +1,52 @@
+package com.arjankleene.astro;
+
+/**
+ * Sunrise and sunset for a range of consecutive dates, stored as struct-of-arrays.
+ *
+ * Index i of each array holds the value for epoch day {@code getStartDay() + i}. The event
+ * times are epoch seconds or one of the polar sentinel values of {@link SolarMath}, and the
+ * states are the {@code SolarMath.STATE_*} codes.
+ *
+ * The arrays are exposed directly, so they can be read and reused without copying.
+ */
+public class SolarRange {
+
+    private final long startDay;
+    private final int days;
+
+    private final long[] sunRises;
+    private final long[] sunSets;
+    private final byte[] states;
+
+    public SolarRange(long startDay, int days) {
+        if (days < 0) {
+            throw new IllegalArgumentException("Number of days must not be negative: " + days);
+        }
+        this.startDay = startDay;
+        this.days = days;
+
+        sunRises = new long[days];
+        sunSets = new long[days];
+        states = new byte[days];
+    }
+
+    public long getStartDay() {
+        return startDay;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public long[] getSunRises() {
+        return sunRises;
+    }
+
+    public long[] getSunSets() {
+        return sunSets;
+    }
+
+    public byte[] getStates() {
+        return states;
+    }
+}
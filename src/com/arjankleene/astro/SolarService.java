@@ -0,0 +1,164 @@
+package com.arjankleene.astro;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calculate sunrise and sunset for many concurrent requests on a work-stealing pool.
+ *
+ * Identical requests that arrive while a calculation is in flight are coalesced: they get
+ * the same task, so the calculation is only done once. Once it completes, the task is
+ * removed and a new request calculates again; combine with a {@link SolarCache} to keep
+ * results. Results are immutable {@link SolarTimes}, which can be shared between threads.
+ */
+public class SolarService {
+
+    private final ForkJoinPool pool;
+    private final SolarCalculator calculator;
+    private final ConcurrentMap<Key, Calculation> inFlight = new ConcurrentHashMap<Key, Calculation>();
+
+    private final AtomicLong calculations = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Calculate with williams in a pool with one worker per available processor.
+     */
+    public SolarService() {
+        this(new ForkJoinPool(), SolarCalculator.WILLIAMS);
+    }
+
+    public SolarService(ForkJoinPool pool, SolarCalculator calculator) {
+        this.pool = pool;
+        this.calculator = calculator;
+    }
+
+    /**
+     * Start calculating sunrise and sunset, or join the identical calculation in flight.
+     *
+     * @throws RejectedExecutionException when the service has been shut down
+     * @param epochDay  the local date as days since 1970-01-01
+     * @param utcOffset offset of local standard time to UTC in seconds
+     */
+    public ForkJoinTask<SolarTimes> submit(long epochDay, double latitude, double longitude, double zenith,
+                                           int utcOffset) {
+        Key key = new Key(epochDay, latitude, longitude, zenith, utcOffset);
+        Calculation calculation = new Calculation(key);
+
+        Calculation existing = inFlight.putIfAbsent(key, calculation);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing;
+        }
+
+        try {
+            pool.execute(calculation);
+        } catch (RejectedExecutionException e) {
+            // never started, so it would never be removed and later requests would wait for it forever
+            inFlight.remove(key, calculation);
+            throw e;
+        }
+        return calculation;
+    }
+
+    /**
+     * Calculate sunrise and sunset, waiting for the result.
+     *
+     * @see #submit(long, double, double, double, int)
+     */
+    public SolarTimes get(long epochDay, double latitude, double longitude, double zenith, int utcOffset)
+            throws InterruptedException, ExecutionException {
+        return submit(epochDay, latitude, longitude, zenith, utcOffset).get();
+    }
+
+    /**
+     * Stop accepting requests; calculations in flight are completed.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public long getCalculations() {
+        return calculations.get();
+    }
+
+    /**
+     * Number of requests that joined a calculation in flight.
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    private class Calculation extends RecursiveTask<SolarTimes> {
+        private static final long serialVersionUID = 1L;
+
+        private final Key key;
+
+        Calculation(Key key) {
+            this.key = key;
+        }
+
+        @Override
+        protected SolarTimes compute() {
+            try {
+                calculations.incrementAndGet();
+                long start = SolarInstrumentation.start();
+                SolarTimes times = new SolarTimes(
+                        calculator.sunRise(key.epochDay, key.latitude, key.longitude, key.zenith, key.utcOffset),
+                        calculator.sunSet(key.epochDay, key.latitude, key.longitude, key.zenith, key.utcOffset));
+                SolarInstrumentation.single(start, times.getSunSet());
+                return times;
+            } finally {
+                inFlight.remove(key, this);
+            }
+        }
+    }
+
+    private static final class Key {
+        private final long epochDay;
+        private final double latitude;
+        private final double longitude;
+        private final double zenith;
+        private final int utcOffset;
+
+        Key(long epochDay, double latitude, double longitude, double zenith, int utcOffset) {
+            this.epochDay = epochDay;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.zenith = zenith;
+            this.utcOffset = utcOffset;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+
+            Key other = (Key) o;
+            return epochDay == other.epochDay
+                    && Double.compare(latitude, other.latitude) == 0
+                    && Double.compare(longitude, other.longitude) == 0
+                    && Double.compare(zenith, other.zenith) == 0
+                    && utcOffset == other.utcOffset;
+        }
+
+        @Override
+        public int hashCode() {
+            long latitudeBits = Double.doubleToLongBits(latitude);
+            long longitudeBits = Double.doubleToLongBits(longitude);
+            long zenithBits = Double.doubleToLongBits(zenith);
+
+            int result = (int) (epochDay ^ (epochDay >>> 32));
+            result = 31 * result + (int) (latitudeBits ^ (latitudeBits >>> 32));
+            result = 31 * result + (int) (longitudeBits ^ (longitudeBits >>> 32));
+            result = 31 * result + (int) (zenithBits ^ (zenithBits >>> 32));
+            result = 31 * result + utcOffset;
+            return result;
+        }
+    }
+}
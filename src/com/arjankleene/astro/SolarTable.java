@@ -0,0 +1,136 @@
+package com.arjankleene.astro;
+
+/**
+ * Table-driven alternative to {@link SolarMath}.
+ *
+ * The sun's declination and right ascension only depend on the approximate time of the event,
+ * which is the day of the year plus an offset that depends on the longitude. They are
+ * precomputed for every day of the year in steps of {@code 1 / STEPS_PER_DAY} day (so in
+ * longitude buckets of 45 degrees) and linearly interpolated, after which a location query
+ * only needs a single acos.
+ *
+ * The methods have the same signatures and results as those in SolarMath, within a few seconds.
+ */
+public final class SolarTable {
+
+    static final int STEPS_PER_DAY = 8;
+
+    /** Covers the approximate times of all events up to the last day of a leap year */
+    private static final int SIZE = 368 * STEPS_PER_DAY + 2;
+
+    private static final double[] SIN_DECLINATION = new double[SIZE];
+    private static final double[] COS_DECLINATION = new double[SIZE];
+    /** Right ascension in hours, increasing without wrapping at 24 */
+    private static final double[] RIGHT_ASCENSION = new double[SIZE];
+
+    static {
+        double previous = 0;
+        double wraps = 0;
+        for (int i = 0; i < SIZE; i++) {
+            double sunLongitude = SolarMath.getSunLongitude((double) i / STEPS_PER_DAY);
+            double sinDec = SolarMath.getSinDeclination(sunLongitude);
+
+            SIN_DECLINATION[i] = sinDec;
+            COS_DECLINATION[i] = SolarMath.getCosDeclination(sinDec);
+
+            double rightAscension = SolarMath.getRightAscension(sunLongitude);
+            if (i > 0 && rightAscension < previous - 12) {
+                wraps += 24;
+            }
+            previous = rightAscension;
+            RIGHT_ASCENSION[i] = rightAscension + wraps;
+        }
+    }
+
+    private SolarTable() {
+    }
+
+    /**
+     * Calculate the sunrise on the given date.
+     *
+     * @see SolarMath#sunRise(long, double, double, double, int)
+     */
+    public static long sunRise(long epochDay, double latitude, double longitude, double zenith, int utcOffset) {
+        double utc = riseUtc(SolarMath.dayOfYear(epochDay), longitude / 15, SolarMath.cosd(zenith),
+                SolarMath.sind(latitude), SolarMath.cosd(latitude));
+        return SolarMath.toEpochSecond(epochDay, utc, utcOffset);
+    }
+
+    /**
+     * Calculate the sunset on the given date.
+     *
+     * @see SolarMath#sunSet(long, double, double, double, int)
+     */
+    public static long sunSet(long epochDay, double latitude, double longitude, double zenith, int utcOffset) {
+        double utc = setUtc(SolarMath.dayOfYear(epochDay), longitude / 15, SolarMath.cosd(zenith),
+                SolarMath.sind(latitude), SolarMath.cosd(latitude));
+        return SolarMath.toEpochSecond(epochDay, utc, utcOffset);
+    }
+
+    /**
+     * Calculate sunrise and sunset for a range of consecutive dates.
+     *
+     * @see SolarMath#fillRange(double, double, long, int, double, int, long[], long[], byte[])
+     */
+    public static void fillRange(double latitude, double longitude, long startDay, int days, double zenith,
+                                 int utcOffset, long[] sunrises, long[] sunsets, byte[] states) {
+        if (days < 0) {
+            throw new IllegalArgumentException("Number of days must not be negative: " + days);
+        }
+        if (sunrises.length < days || sunsets.length < days || states.length < days) {
+            throw new IllegalArgumentException("Result arrays must hold at least " + days + " days");
+        }
+
+        double lngHour = longitude / 15;
+        double cosZenith = SolarMath.cosd(zenith);
+        double sinLatitude = SolarMath.sind(latitude);
+        double cosLatitude = SolarMath.cosd(latitude);
+
+        int year = SolarMath.year(startDay);
+        int dayOfYear = (int) (startDay - SolarMath.epochDay(year, 1, 1)) + 1;
+        long nextYearStart = SolarMath.epochDay(year + 1, 1, 1);
+
+        long epochDay = startDay;
+        for (int i = 0; i < days; i++, epochDay++, dayOfYear++) {
+            if (epochDay == nextYearStart) {
+                dayOfYear = 1;
+                nextYearStart = SolarMath.epochDay(++year + 1, 1, 1);
+            }
+
+            double rise = riseUtc(dayOfYear, lngHour, cosZenith, sinLatitude, cosLatitude);
+            double set = setUtc(dayOfYear, lngHour, cosZenith, sinLatitude, cosLatitude);
+
+            sunrises[i] = SolarMath.toEpochSecond(epochDay, rise, utcOffset);
+            sunsets[i] = SolarMath.toEpochSecond(epochDay, set, utcOffset);
+            states[i] = SolarMath.state(sunsets[i]);
+        }
+    }
+
+    static double riseUtc(int dayOfYear, double lngHour, double cosZenith, double sinLatitude, double cosLatitude) {
+        return eventUtc(true, SolarMath.getRiseT(dayOfYear, lngHour), lngHour, cosZenith, sinLatitude, cosLatitude);
+    }
+
+    static double setUtc(int dayOfYear, double lngHour, double cosZenith, double sinLatitude, double cosLatitude) {
+        return eventUtc(false, SolarMath.getSetT(dayOfYear, lngHour), lngHour, cosZenith, sinLatitude, cosLatitude);
+    }
+
+    private static double eventUtc(boolean rising, double t, double lngHour, double cosZenith,
+                                   double sinLatitude, double cosLatitude) {
+        double position = t * STEPS_PER_DAY;
+        int index = (int) position;
+        double fraction = position - index;
+
+        double sinDec = interpolate(SIN_DECLINATION, index, fraction);
+        double cosDec = interpolate(COS_DECLINATION, index, fraction);
+        double cosH = SolarMath.getCosH(sinDec, cosDec, cosZenith, sinLatitude, cosLatitude);
+        if (cosH > 1) return SolarMath.POLAR_DOWN;
+        if (cosH < -1) return SolarMath.POLAR_UP;
+
+        double rightAscension = interpolate(RIGHT_ASCENSION, index, fraction) % 24;
+        return SolarMath.eventUtc(rising, cosH, rightAscension, t, lngHour);
+    }
+
+    private static double interpolate(double[] table, int index, double fraction) {
+        return table[index] + (table[index + 1] - table[index]) * fraction;
+    }
+}
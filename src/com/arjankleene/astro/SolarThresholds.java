@@ -0,0 +1,94 @@
+package com.arjankleene.astro;
+
+/**
+ * Sunrise and sunset for several zeniths on a single date.
+ *
+ * The values for each zenith are found at the index of that zenith in the list the result
+ * was calculated for. Event times are epoch seconds, or one of the polar sentinel values
+ * of {@link SolarMath}.
+ */
+public class SolarThresholds {
+
+    /** The four zeniths defined in {@link SolarInfo}, from official to astronomical */
+    private static final double[] DEFAULT_ZENITHS = {
+            SolarInfo.ZENITH_OFFICIAL,
+            SolarInfo.ZENITH_CIVIL,
+            SolarInfo.ZENITH_NAUTICAL,
+            SolarInfo.ZENITH_ASTRONOMICAL
+    };
+
+    public static final int OFFICIAL = 0;
+    public static final int CIVIL = 1;
+    public static final int NAUTICAL = 2;
+    public static final int ASTRONOMICAL = 3;
+
+    /**
+     * Get the four zeniths defined in {@link SolarInfo}, from official to astronomical, at
+     * the index constants of this class.
+     *
+     * @return a new array on every call
+     */
+    public static double[] getDefaultZeniths() {
+        return DEFAULT_ZENITHS.clone();
+    }
+
+    private final long epochDay;
+    private final double[] zeniths;
+    private final long[] sunRises;
+    private final long[] sunSets;
+
+    SolarThresholds(long epochDay, double[] zeniths) {
+        this.epochDay = epochDay;
+        this.zeniths = zeniths.clone();
+        this.sunRises = new long[zeniths.length];
+        this.sunSets = new long[zeniths.length];
+    }
+
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+    public int size() {
+        return zeniths.length;
+    }
+
+    public double getZenith(int index) {
+        return zeniths[index];
+    }
+
+    /**
+     * Get the index of the given zenith, or -1 if it was not calculated.
+     */
+    public int indexOf(double zenith) {
+        for (int i = 0; i < zeniths.length; i++) {
+            if (zeniths[i] == zenith) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public long getSunRise(int index) {
+        return sunRises[index];
+    }
+
+    public long getSunSet(int index) {
+        return sunSets[index];
+    }
+
+    public boolean isUpAllDay(int index) {
+        return sunSets[index] == SolarMath.UP_ALL_DAY;
+    }
+
+    public boolean isDownAllDay(int index) {
+        return sunSets[index] == SolarMath.DOWN_ALL_DAY;
+    }
+
+    long[] getSunRises() {
+        return sunRises;
+    }
+
+    long[] getSunSets() {
+        return sunSets;
+    }
+}
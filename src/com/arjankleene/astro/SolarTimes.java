@@ -0,0 +1,53 @@
+package com.arjankleene.astro;
+
+/**
+ * Sunrise and sunset on a single date as epoch seconds.
+ *
+ * Instances are immutable. An event is one of the polar sentinel values of {@link SolarMath}
+ * when the sun does not rise or set on the date.
+ */
+public final class SolarTimes {
+
+    private final long sunRise;
+    private final long sunSet;
+
+    public SolarTimes(long sunRise, long sunSet) {
+        this.sunRise = sunRise;
+        this.sunSet = sunSet;
+    }
+
+    public long getSunRise() {
+        return sunRise;
+    }
+
+    public long getSunSet() {
+        return sunSet;
+    }
+
+    public boolean isUpAllDay() {
+        return sunSet == SolarMath.UP_ALL_DAY;
+    }
+
+    public boolean isDownAllDay() {
+        return sunSet == SolarMath.DOWN_ALL_DAY;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SolarTimes)) return false;
+
+        SolarTimes other = (SolarTimes) o;
+        return sunRise == other.sunRise && sunSet == other.sunSet;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (int) (sunRise ^ (sunRise >>> 32)) + (int) (sunSet ^ (sunSet >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "SolarTimes{sunRise=" + sunRise + ", sunSet=" + sunSet + "}";
+    }
+}
@@ -0,0 +1,72 @@
+package com.arjankleene.astro;
+
+/**
+ * A fixed location for which solar events are precomputed.
+ *
+ * Instances are immutable.
+ */
+public final class Station {
+
+    private final String id;
+    private final double latitude;
+    private final double longitude;
+    private final int utcOffset;
+
+    /**
+     * @param utcOffset offset of local standard time to UTC in seconds
+     */
+    public Station(String id, double latitude, double longitude, int utcOffset) {
+        if (id == null) {
+            throw new IllegalArgumentException("Station id is required");
+        }
+        this.id = id;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.utcOffset = utcOffset;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public int getUtcOffset() {
+        return utcOffset;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Station)) return false;
+
+        Station other = (Station) o;
+        return id.equals(other.id)
+                && Double.doubleToLongBits(latitude) == Double.doubleToLongBits(other.latitude)
+                && Double.doubleToLongBits(longitude) == Double.doubleToLongBits(other.longitude)
+                && utcOffset == other.utcOffset;
+    }
+
+    @Override
+    public int hashCode() {
+        long latitudeBits = Double.doubleToLongBits(latitude);
+        long longitudeBits = Double.doubleToLongBits(longitude);
+        int result = id.hashCode();
+        result = 31 * result + (int) (latitudeBits ^ (latitudeBits >>> 32));
+        result = 31 * result + (int) (longitudeBits ^ (longitudeBits >>> 32));
+        result = 31 * result + utcOffset;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Station{id=" + id + ", latitude=" + latitude + ", longitude=" + longitude
+                + ", utcOffset=" + utcOffset + "}";
+    }
+}
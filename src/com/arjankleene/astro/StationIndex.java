@@ -0,0 +1,220 @@
+package com.arjankleene.astro;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answer sunrise and sunset queries from the nearest precomputed station.
+ *
+ * Stations are kept in a {@link SolarColumnStore} and indexed in a grid of latitude and
+ * longitude cells; the columns wrap around the antimeridian. A query within the maximum
+ * distance of a station with the same utcOffset takes the events of that station, shifted
+ * by the difference in longitude: four minutes per degree. The difference in latitude is
+ * not corrected, so the maximum distance bounds the error.
+ *
+ * Other queries, and those for dates outside the store, polar events or events that the
+ * shift would move to another date, are calculated with the calculator of the index. Such
+ * a location can be added as a new station while the store has room, unless there is a
+ * station near it already.
+ *
+ * Instances are not thread-safe.
+ */
+public class StationIndex {
+
+    /** Mean radius of the earth in kilometers */
+    static final double EARTH_RADIUS = 6371.0;
+
+    private final SolarColumnStore store;
+    private final SolarCalculator calculator;
+    private final double maxDistance;
+
+    private final int rows;
+    private final int columns;
+    private final double cellHeight;
+    private final double cellWidth;
+    /** Site indices of the stations in each cell, by row * columns + column */
+    private final Map<Integer, List<Integer>> cells = new HashMap<Integer, List<Integer>>();
+    private final List<Station> stations = new ArrayList<Station>();
+
+    private int hits;
+    private int misses;
+
+    /**
+     * @param store       receives the events of the stations, site i for the i-th station added
+     * @param maxDistance the largest distance in kilometers at which a station answers a query
+     */
+    public StationIndex(SolarColumnStore store, SolarCalculator calculator, double maxDistance) {
+        if (!(maxDistance > 0)) {
+            throw new IllegalArgumentException("Maximum distance must be positive: " + maxDistance);
+        }
+        this.store = store;
+        this.calculator = calculator;
+        this.maxDistance = maxDistance;
+
+        // cells are at least the maximum distance high, and as wide at the equator
+        double cellSize = Math.min(Math.toDegrees(maxDistance / EARTH_RADIUS), 90);
+        this.rows = Math.max(1, (int) Math.floor(180 / cellSize));
+        this.columns = Math.max(1, (int) Math.floor(360 / cellSize));
+        this.cellHeight = 180.0 / rows;
+        this.cellWidth = 360.0 / columns;
+    }
+
+    public int size() {
+        return stations.size();
+    }
+
+    public Station getStation(int site) {
+        return stations.get(site);
+    }
+
+    /**
+     * Number of queries answered from a station.
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * Number of queries that were calculated.
+     */
+    public int getMisses() {
+        return misses;
+    }
+
+    /**
+     * Calculate the events of a station into the next site of the store and index it.
+     *
+     * @return the site of the station, or -1 if the store is full
+     */
+    public int add(Station station) {
+        int site = stations.size();
+        if (site >= store.getSites()) return -1;
+
+        store.fill(site, station.getLatitude(), station.getLongitude(), station.getUtcOffset(), calculator);
+        stations.add(station);
+
+        int key = key(row(station.getLatitude()), column(station.getLongitude()));
+        List<Integer> cell = cells.get(key);
+        if (cell == null) {
+            cell = new ArrayList<Integer>(2);
+            cells.put(key, cell);
+        }
+        cell.add(site);
+        return site;
+    }
+
+    /**
+     * Find the nearest station with the given utcOffset within the maximum distance.
+     *
+     * @return the site of the station, or -1 if there is none
+     */
+    public int findNearest(double latitude, double longitude, int utcOffset) {
+        int row = row(latitude);
+        // a cell is narrower in kilometers away from the equator, so search more columns
+        double cosLatitude = Math.cos(Math.toRadians(Math.min(90, Math.abs(latitude) + cellHeight)));
+        int span = cosLatitude * columns < 2 ? columns : (int) Math.ceil(1 / cosLatitude);
+        int column = column(longitude);
+
+        int nearest = -1;
+        double nearestDistance = maxDistance;
+        for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+            for (int c = 0; c < Math.min(2 * span + 1, columns); c++) {
+                List<Integer> cell = cells.get(key(r, ((column - span + c) % columns + columns) % columns));
+                if (cell == null) continue;
+
+                for (int i = 0; i < cell.size(); i++) {
+                    int site = cell.get(i);
+                    Station station = stations.get(site);
+                    if (station.getUtcOffset() != utcOffset) continue;
+
+                    double distance = distance(latitude, longitude, station.getLatitude(), station.getLongitude());
+                    if (distance <= nearestDistance) {
+                        nearestDistance = distance;
+                        nearest = site;
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Get sunrise and sunset at a location, from the nearest station when possible.
+     *
+     * @param epochDay  the local date as days since 1970-01-01
+     * @param utcOffset offset of local standard time to UTC in seconds
+     * @param zenith    the index of the zenith in the store
+     * @param insert    add the location as a station when it is calculated
+     */
+    public SolarTimes query(long epochDay, double latitude, double longitude, int utcOffset, int zenith,
+                            boolean insert) {
+        long day = epochDay - store.getStartDay();
+        int site = findNearest(latitude, longitude, utcOffset);
+        if (site >= 0 && day >= 0 && day < store.getDays()) {
+            Station station = stations.get(site);
+            double deltaLongitude = station.getLongitude() - longitude;
+            if (deltaLongitude > 180) {
+                deltaLongitude -= 360;
+            } else if (deltaLongitude < -180) {
+                deltaLongitude += 360;
+            }
+            long shift = Math.round(deltaLongitude * 240);
+
+            int sunRise = store.getSunRiseOffset(site, (int) day, zenith);
+            int sunSet = store.getSunSetOffset(site, (int) day, zenith);
+            if (isShiftable(sunRise, shift) && isShiftable(sunSet, shift)) {
+                hits++;
+                long midnight = epochDay * SolarMath.SECONDS_PER_DAY - utcOffset;
+                return new SolarTimes(midnight + sunRise + shift, midnight + sunSet + shift);
+            }
+        }
+
+        misses++;
+        // a station that is near but cannot answer this date would only be duplicated
+        if (insert && site < 0 && stations.size() < store.getSites()) {
+            site = add(new Station(latitude + "," + longitude, latitude, longitude, utcOffset));
+            if (day >= 0 && day < store.getDays()) {
+                return new SolarTimes(store.getSunRise(site, (int) day, zenith), store.getSunSet(site, (int) day, zenith));
+            }
+        }
+
+        double zenithAngle = store.getZenith(zenith);
+        return new SolarTimes(
+                calculator.sunRise(epochDay, latitude, longitude, zenithAngle, utcOffset),
+                calculator.sunSet(epochDay, latitude, longitude, zenithAngle, utcOffset));
+    }
+
+    /**
+     * Great-circle distance in kilometers.
+     */
+    static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double sinLatitude = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+        double sinLongitude = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double a = sinLatitude * sinLatitude + Math.cos(Math.toRadians(latitude1))
+                * Math.cos(Math.toRadians(latitude2)) * sinLongitude * sinLongitude;
+        return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Check that an event is not polar and stays on its date after the shift.
+     */
+    private static boolean isShiftable(int offset, long shift) {
+        if (offset == SolarColumnStore.UP_ALL_DAY || offset == SolarColumnStore.DOWN_ALL_DAY) return false;
+        return offset + shift >= 0 && offset + shift < SolarMath.SECONDS_PER_DAY;
+    }
+
+    private int row(double latitude) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((latitude + 90) / cellHeight)));
+    }
+
+    private int column(double longitude) {
+        double normalized = ((longitude + 180) % 360 + 360) % 360;
+        return Math.min(columns - 1, (int) (normalized / cellWidth));
+    }
+
+    private int key(int row, int column) {
+        return row * columns + column;
+    }
+}
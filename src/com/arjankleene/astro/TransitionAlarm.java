@@ -0,0 +1,25 @@
+package com.arjankleene.astro;
+
+/**
+ * Clock and single wakeup that drive a {@link TransitionScheduler}.
+ *
+ * Implementations decide how the wakeup is delivered, like a handler on the main thread of
+ * an app, or a manually advanced clock in tests.
+ */
+public interface TransitionAlarm {
+
+    /**
+     * Get the current time in milliseconds since 1970-01-01 UTC.
+     */
+    long currentTimeMillis();
+
+    /**
+     * Run the callback once at the given time, replacing any alarm that was set before.
+     */
+    void set(long epochMillis, Runnable callback);
+
+    /**
+     * Cancel the alarm that was set, if any.
+     */
+    void cancel();
+}
@@ -0,0 +1,118 @@
+package com.arjankleene.astro;
+
+/**
+ * Notify a listener at each sunrise, sunset and twilight boundary of a location.
+ *
+ * Only the next transition is calculated and a single alarm is set for it. When the alarm
+ * goes off, the listener is notified and the transition after it is calculated, so the cost
+ * is one calculation per event, without any polling. Transitions that passed while the
+ * alarm was late, for example while the device was asleep, are delivered in order. A
+ * transition that is not later than the one before it is dropped, so the listener never
+ * sees the time go backwards.
+ *
+ * The listener is called on the thread of the alarm. Instances are not thread-safe, so
+ * they should only be used from that thread.
+ */
+public class TransitionScheduler {
+
+    public interface Listener {
+        void onTransition(SolarEvent event);
+    }
+
+    private final TransitionAlarm alarm;
+    private final Listener listener;
+    private final double latitude;
+    private final double longitude;
+    private final int utcOffset;
+    private final double[] zeniths;
+
+    private final Runnable callback = new Runnable() {
+        @Override
+        public void run() {
+            onAlarm();
+        }
+    };
+
+    private SolarEventIterator events;
+    private SolarEvent next;
+
+    /**
+     * @param utcOffset offset of local standard time to UTC in seconds
+     * @param zeniths   the zeniths of the transitions, by default those of {@link SolarThresholds}
+     */
+    public TransitionScheduler(TransitionAlarm alarm, Listener listener, double latitude, double longitude,
+                               int utcOffset, double... zeniths) {
+        this.alarm = alarm;
+        this.listener = listener;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.utcOffset = utcOffset;
+        this.zeniths = zeniths.length == 0 ? SolarThresholds.getDefaultZeniths() : zeniths.clone();
+    }
+
+    /**
+     * Set the alarm for the first transition after the current time.
+     *
+     * Calling this again starts over from the current time, for example after the clock
+     * or the timezone changed.
+     */
+    public void start() {
+        alarm.cancel();
+        long now = currentTime();
+        events = new SolarEventIterator(latitude, longitude, utcOffset, now + 1, zeniths);
+        next = following(null);
+        arm();
+    }
+
+    public void stop() {
+        alarm.cancel();
+        events = null;
+        next = null;
+    }
+
+    /**
+     * Get the transition the alarm is set for, or null if there is none.
+     */
+    public SolarEvent getNextTransition() {
+        return next;
+    }
+
+    private void onAlarm() {
+        if (events == null) return;
+
+        // the alarm may go off early or late
+        long now = currentTime();
+        while (next != null && next.getTime() <= now) {
+            SolarEvent event = next;
+            next = following(event);
+            listener.onTransition(event);
+
+            // the listener may have stopped or restarted the scheduler
+            if (events == null) return;
+        }
+        arm();
+    }
+
+    /**
+     * Get the first transition after the previous one, or null if there is none.
+     */
+    private SolarEvent following(SolarEvent previous) {
+        while (events.hasNext()) {
+            SolarEvent event = events.next();
+            if (previous == null || event.getTime() > previous.getTime()) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    private void arm() {
+        if (next != null) {
+            alarm.set(next.getTime() * 1000, callback);
+        }
+    }
+
+    private long currentTime() {
+        return SolarMath.floorDiv(alarm.currentTimeMillis(), 1000);
+    }
+}
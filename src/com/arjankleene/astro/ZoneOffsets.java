@@ -0,0 +1,266 @@
+package com.arjankleene.astro;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fast conversion of epoch seconds to the local time of a timezone.
+ *
+ * The offset transitions of the zone are found a year at a time, the first time a year is
+ * used, and stored in sorted primitive arrays; a lookup is a binary search over them.
+ * Offsets are the total offset (standard time plus daylight saving time) in seconds, so
+ * zones with half-hour or 45-minute offsets are converted correctly. The standard offset,
+ * without daylight saving time, is kept as well; that is the offset that places events on
+ * a local date. Outside the range of years, the timezone itself is used.
+ *
+ * Instances are thread-safe. A year may be resolved by two threads at once, in which case
+ * one of the identical results is kept.
+ */
+public class ZoneOffsets {
+
+    /** Range of years of the resolvers of {@link #forZone(TimeZone)} */
+    private static final int SHARED_FIRST_YEAR = 1970;
+    private static final int SHARED_LAST_YEAR = 2100;
+
+    /** Shared resolvers; there is a small, fixed number of zones, so they are all kept */
+    private static final ConcurrentMap<TimeZone, ZoneOffsets> zones = new ConcurrentHashMap<TimeZone, ZoneOffsets>();
+
+    private final TimeZone timeZone;
+    private final int firstYear;
+    private final long from;
+    private final long to;
+
+    /** The resolved years, null until they are used */
+    private final AtomicReferenceArray<Year> years;
+
+    /**
+     * Cover the years from the start of the first year up to the end of the last.
+     *
+     * Years are in UTC; a transition is found to the second. Nothing is resolved until a
+     * year is used.
+     */
+    public ZoneOffsets(TimeZone timeZone, int firstYear, int lastYear) {
+        if (firstYear > lastYear) {
+            throw new IllegalArgumentException("Invalid year range: " + firstYear + " to " + lastYear);
+        }
+        this.timeZone = (TimeZone) timeZone.clone();
+        this.firstYear = firstYear;
+        this.from = SolarMath.epochDay(firstYear, 1, 1) * SolarMath.SECONDS_PER_DAY;
+        this.to = SolarMath.epochDay(lastYear + 1, 1, 1) * SolarMath.SECONDS_PER_DAY;
+        this.years = new AtomicReferenceArray<Year>(lastYear - firstYear + 1);
+    }
+
+    /**
+     * Get a shared resolver for the zone, covering the years 1970 up to 2100.
+     *
+     * Getting a resolver that exists takes no lock; the years are resolved when they are used.
+     */
+    public static ZoneOffsets forZone(TimeZone timeZone) {
+        ZoneOffsets resolver = zones.get(timeZone);
+        if (resolver != null) return resolver;
+
+        resolver = new ZoneOffsets(timeZone, SHARED_FIRST_YEAR, SHARED_LAST_YEAR);
+        ZoneOffsets existing = zones.putIfAbsent(resolver.timeZone, resolver);
+        return existing != null ? existing : resolver;
+    }
+
+    public TimeZone getTimeZone() {
+        return (TimeZone) timeZone.clone();
+    }
+
+    /**
+     * Number of transitions within the range of years. This resolves all years.
+     */
+    public int getTransitionCount() {
+        int count = 0;
+        for (int i = 0; i < years.length(); i++) {
+            count += resolved(i).transitions.length;
+        }
+        return count;
+    }
+
+    /**
+     * Get the total offset to UTC in seconds at the given time.
+     */
+    public int getOffset(long epochSecond) {
+        if (epochSecond < from || epochSecond >= to) {
+            return zoneOffset(epochSecond);
+        }
+
+        Year year = year(epochSecond);
+        return year.offsets[year.index(epochSecond)];
+    }
+
+    /**
+     * Get the offset of standard time to UTC in seconds at the given time.
+     *
+     * This is the utcOffset that the calculations use to place events on a local date.
+     */
+    public int getStandardOffset(long epochSecond) {
+        if (epochSecond < from || epochSecond >= to) {
+            return standardOffset(epochSecond, zoneOffset(epochSecond));
+        }
+
+        Year year = year(epochSecond);
+        return year.standardOffsets[year.index(epochSecond)];
+    }
+
+    /**
+     * Get the local date of the given time as days since 1970-01-01.
+     */
+    public long getEpochDay(long epochSecond) {
+        return SolarMath.floorDiv(epochSecond + getOffset(epochSecond), SolarMath.SECONDS_PER_DAY);
+    }
+
+    /**
+     * Convert an event time to local time, as seconds since 1970-01-01 00:00 local time.
+     *
+     * @return the local time, or the polar sentinel value that was given
+     */
+    public long toLocalTime(long event) {
+        if (!SolarMath.isEvent(event)) return event;
+        return event + getOffset(event);
+    }
+
+    /**
+     * Convert event times to local time, see {@link #toLocalTime(long)}.
+     *
+     * Consecutive events usually fall between the same transitions, so the last offset is
+     * reused until the next transition.
+     */
+    public void toLocalTimes(long[] events, int count, long[] localTimes) {
+        if (events.length < count || localTimes.length < count) {
+            throw new IllegalArgumentException("Arrays must hold at least " + count + " times");
+        }
+
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            long event = events[i];
+            if (!SolarMath.isEvent(event)) {
+                localTimes[i] = event;
+                continue;
+            }
+
+            if (event < start || event >= end) {
+                if (event < from || event >= to) {
+                    localTimes[i] = event + zoneOffset(event);
+                    continue;
+                }
+
+                Year year = year(event);
+                int index = year.index(event);
+                offset = year.offsets[index];
+                start = index == 0 ? year.from : year.transitions[index - 1];
+                end = index == year.transitions.length ? year.to : year.transitions[index];
+            }
+            localTimes[i] = event + offset;
+        }
+    }
+
+    /**
+     * Get the resolved year of a time within the range of years.
+     */
+    private Year year(long epochSecond) {
+        int year = SolarMath.year(SolarMath.floorDiv(epochSecond, SolarMath.SECONDS_PER_DAY));
+        return resolved(year - firstYear);
+    }
+
+    private Year resolved(int index) {
+        Year year = years.get(index);
+        if (year == null) {
+            years.compareAndSet(index, null, resolve(firstYear + index));
+            year = years.get(index);
+        }
+        return year;
+    }
+
+    /**
+     * Find the transitions of a year.
+     */
+    private Year resolve(int year) {
+        long yearFrom = SolarMath.epochDay(year, 1, 1) * SolarMath.SECONDS_PER_DAY;
+        long yearTo = SolarMath.epochDay(year + 1, 1, 1) * SolarMath.SECONDS_PER_DAY;
+
+        long[] foundTransitions = new long[4];
+        int[] foundOffsets = new int[5];
+        int[] foundStandardOffsets = new int[5];
+        int count = 0;
+
+        int offset = zoneOffset(yearFrom);
+        foundOffsets[0] = offset;
+        foundStandardOffsets[0] = standardOffset(yearFrom, offset);
+        // transitions are at least days apart, so checking every day finds all of them
+        for (long time = yearFrom + SolarMath.SECONDS_PER_DAY; time <= yearTo; time += SolarMath.SECONDS_PER_DAY) {
+            int next = zoneOffset(time);
+            if (next == offset) continue;
+
+            // the offset changes in (time - 1 day, time]
+            long low = time - SolarMath.SECONDS_PER_DAY;
+            long high = time;
+            while (high - low > 1) {
+                long middle = (low + high) >>> 1;
+                if (zoneOffset(middle) == offset) {
+                    low = middle;
+                } else {
+                    high = middle;
+                }
+            }
+
+            if (count == foundTransitions.length) {
+                foundTransitions = Arrays.copyOf(foundTransitions, count * 2);
+                foundOffsets = Arrays.copyOf(foundOffsets, count * 2 + 1);
+                foundStandardOffsets = Arrays.copyOf(foundStandardOffsets, count * 2 + 1);
+            }
+            foundTransitions[count] = high;
+            foundOffsets[++count] = next;
+            foundStandardOffsets[count] = standardOffset(high, next);
+            offset = next;
+        }
+
+        return new Year(yearFrom, yearTo, Arrays.copyOf(foundTransitions, count),
+                Arrays.copyOf(foundOffsets, count + 1), Arrays.copyOf(foundStandardOffsets, count + 1));
+    }
+
+    private int standardOffset(long epochSecond, int offset) {
+        boolean daylight = timeZone.inDaylightTime(new Date(epochSecond * 1000));
+        return daylight ? offset - timeZone.getDSTSavings() / 1000 : offset;
+    }
+
+    private int zoneOffset(long epochSecond) {
+        return timeZone.getOffset(epochSecond * 1000) / 1000;
+    }
+
+    private static final class Year {
+        private final long from;
+        private final long to;
+
+        /** Epoch seconds at which a new offset starts */
+        private final long[] transitions;
+        /** Offset at the start of the year, followed by the offset starting at each transition */
+        private final int[] offsets;
+        /** Standard offsets, in the same order as the offsets */
+        private final int[] standardOffsets;
+
+        Year(long from, long to, long[] transitions, int[] offsets, int[] standardOffsets) {
+            this.from = from;
+            this.to = to;
+            this.transitions = transitions;
+            this.offsets = offsets;
+            this.standardOffsets = standardOffsets;
+        }
+
+        /**
+         * Get the index of the offset at a time within the year.
+         */
+        int index(long epochSecond) {
+            int index = Arrays.binarySearch(transitions, epochSecond);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+    }
+}
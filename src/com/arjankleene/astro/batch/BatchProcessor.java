@@ -0,0 +1,472 @@
+package com.arjankleene.astro.batch;
+
+import com.arjankleene.astro.SolarCalculator;
+import com.arjankleene.astro.SolarInfo;
+import com.arjankleene.astro.SolarMath;
+import com.arjankleene.astro.ZoneOffsets;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Calculate sunrise and sunset for every station of a CSV file over a range of dates.
+ *
+ * The input has a line per station with id, latitude, longitude and timezone id, for example
+ * {@code enschede,52.2406295,6.8854202,Europe/Amsterdam}. Empty lines, lines starting with
+ * {@code #} and a header line are skipped, as are malformed lines. An id that contains a
+ * comma or a double quote is written between double quotes, with its quotes doubled, as in
+ * RFC 4180; the CSV output quotes such ids in the same way.
+ *
+ * Stations are read in chunks and calculated in a bounded thread pool. When the queue of
+ * the pool is full, the reading thread calculates the chunk itself, so reading never runs
+ * ahead of the calculations and memory use does not depend on the size of the input. Each
+ * chunk writes its results through its own buffer, whole stations at a time, so the output
+ * is in the order in which chunks complete.
+ *
+ * The CSV output has a line per station, date and zenith with the local sunrise and sunset,
+ * or {@code up_all_day} and {@code down_all_day}. The binary output is big-endian:
+ * <pre>
+ * int    magic ("ASTB")
+ * short  version
+ * short  reserved
+ * long   first date as days since 1970-01-01
+ * int    number of days
+ * int    number of zeniths
+ * double zenith, for each zenith
+ *
+ * for each station:
+ * short  length of the id
+ * byte   UTF-8 id
+ * long   sunrise and long sunset, for each date and then each zenith,
+ *        as epoch seconds or one of the polar sentinel values of {@link SolarMath}
+ * </pre>
+ */
+public class BatchProcessor {
+
+    public enum Format { CSV, BINARY }
+
+    public static final int MAGIC = 0x41535442;
+    public static final short VERSION = 1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** Number of stations that are calculated by a single task */
+    private static final int STATIONS_PER_CHUNK = 64;
+    /** Size of the output buffer of a task, unless a single station needs more */
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final long startDay;
+    private final int days;
+    private final double[] zeniths;
+    private final Format format;
+    private final int threads;
+    private final SolarCalculator calculator;
+
+    /**
+     * @param startDay the first local date as days since 1970-01-01
+     * @param zeniths  the zeniths to calculate for each date
+     * @param threads  the number of calculating threads
+     */
+    public BatchProcessor(long startDay, int days, double[] zeniths, Format format, int threads) {
+        this(startDay, days, zeniths, format, threads, SolarCalculator.WILLIAMS);
+    }
+
+    /**
+     * @param calculator the engine that calculates all events
+     */
+    public BatchProcessor(long startDay, int days, double[] zeniths, Format format, int threads,
+                          SolarCalculator calculator) {
+        if (days <= 0) {
+            throw new IllegalArgumentException("Number of days must be positive: " + days);
+        }
+        if (zeniths.length == 0) {
+            throw new IllegalArgumentException("At least one zenith is required");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        this.startDay = startDay;
+        this.days = days;
+        this.zeniths = zeniths.clone();
+        this.format = format;
+        this.threads = threads;
+        this.calculator = calculator;
+    }
+
+    /**
+     * Read the stations from the input file and write the results to the output file.
+     *
+     * Lines that are not valid stations are counted as skipped in the report.
+     */
+    public BatchReport process(File input, File output) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        BatchReport report = new BatchReport();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(input), UTF_8));
+        try {
+            FileOutputStream out = new FileOutputStream(output);
+            try {
+                process(reader, out.getChannel(), report);
+            } finally {
+                out.close();
+            }
+        } finally {
+            reader.close();
+        }
+
+        report.nanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private void process(BufferedReader reader, FileChannel channel, BatchReport report)
+            throws IOException, InterruptedException {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(threads * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            writeFully(channel, header());
+
+            Map<String, ZoneOffsets> zones = new HashMap<String, ZoneOffsets>();
+            AtomicReference<Exception> failure = new AtomicReference<Exception>();
+
+            Chunk chunk = new Chunk(channel, report, failure);
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null && failure.get() == null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                if (!chunk.add(line, zones)) {
+                    // the first line may be a header
+                    if (lineNumber > 1) {
+                        report.skipped.incrementAndGet();
+                    }
+                    continue;
+                }
+
+                if (chunk.count == STATIONS_PER_CHUNK) {
+                    pool.execute(chunk);
+                    chunk = new Chunk(channel, report, failure);
+                }
+            }
+            if (chunk.count > 0) {
+                pool.execute(chunk);
+            }
+
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+            Exception e = failure.get();
+            if (e instanceof IOException) {
+                throw (IOException) e;
+            } else if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            } else if (e != null) {
+                throw new IOException(e);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private ByteBuffer header() {
+        if (format == Format.CSV) {
+            return ByteBuffer.wrap("id,date,zenith,sunrise,sunset\n".getBytes(UTF_8));
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(28 + zeniths.length * 8);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.putShort((short) 0);
+        header.putLong(startDay);
+        header.putInt(days);
+        header.putInt(zeniths.length);
+        for (double zenith : zeniths) {
+            header.putDouble(zenith);
+        }
+        header.flip();
+        return header;
+    }
+
+    /**
+     * Find the quote that closes the quoted field at the start of the line.
+     *
+     * @return the index of the quote, or -1 if the field is not closed
+     */
+    private static int closingQuote(String line) {
+        for (int i = 1; i < line.length(); i++) {
+            if (line.charAt(i) != '"') continue;
+            if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                // an escaped quote
+                i++;
+            } else {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Quote a CSV field when it contains a separator, a quote or a line break.
+     */
+    private static String csvField(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Stations that are calculated by a single task.
+     */
+    private class Chunk implements Runnable {
+        private final FileChannel channel;
+        private final BatchReport report;
+        /** The first failure of any chunk, after which the remaining chunks are not calculated */
+        private final AtomicReference<Exception> failure;
+
+        private final String[] ids = new String[STATIONS_PER_CHUNK];
+        private final double[] latitudes = new double[STATIONS_PER_CHUNK];
+        private final double[] longitudes = new double[STATIONS_PER_CHUNK];
+        private final ZoneOffsets[] zones = new ZoneOffsets[STATIONS_PER_CHUNK];
+        private int count;
+
+        Chunk(FileChannel channel, BatchReport report, AtomicReference<Exception> failure) {
+            this.channel = channel;
+            this.report = report;
+            this.failure = failure;
+        }
+
+        /**
+         * Parse a line of the input.
+         *
+         * @return false if the line is not a valid station
+         */
+        boolean add(String line, Map<String, ZoneOffsets> cache) {
+            String id;
+            int end;
+            if (line.startsWith("\"")) {
+                end = closingQuote(line);
+                if (end < 0) return false;
+                id = line.substring(1, end).replace("\"\"", "\"");
+                end++;
+            } else {
+                end = line.indexOf(',');
+                if (end < 0) return false;
+                id = line.substring(0, end).trim();
+            }
+            if (end >= line.length() || line.charAt(end) != ',') return false;
+
+            String[] fields = line.substring(end + 1).split(",");
+            if (fields.length != 3) return false;
+
+            double latitude;
+            double longitude;
+            try {
+                latitude = Double.parseDouble(fields[0].trim());
+                longitude = Double.parseDouble(fields[1].trim());
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) return false;
+
+            String zoneId = fields[2].trim();
+            ZoneOffsets zone = cache.get(zoneId);
+            if (zone == null) {
+                TimeZone timeZone = TimeZone.getTimeZone(zoneId);
+                // unknown ids give GMT
+                if (!timeZone.getID().equals(zoneId)) return false;
+
+                zone = new ZoneOffsets(timeZone, SolarMath.year(startDay), SolarMath.year(startDay + days));
+                cache.put(zoneId, zone);
+            }
+
+            ids[count] = id;
+            latitudes[count] = latitude;
+            longitudes[count] = longitude;
+            zones[count] = zone;
+            count++;
+            return true;
+        }
+
+        @Override
+        public void run() {
+            if (failure.get() != null) return;
+
+            try {
+                calculate();
+            } catch (Exception e) {
+                // an exception in a pool thread would otherwise leave the output silently incomplete
+                failure.compareAndSet(null, e);
+            }
+        }
+
+        private void calculate() throws IOException {
+            int results = days * zeniths.length;
+            long[] sunrises = new long[results];
+            long[] sunsets = new long[results];
+            long[] rangeRises = new long[days];
+            long[] rangeSets = new long[days];
+            byte[] states = new byte[days];
+
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            StringBuilder text = new StringBuilder();
+
+            for (int station = 0; station < count; station++) {
+                ZoneOffsets zone = zones[station];
+                int utcOffset = zone.getStandardOffset(startDay * SolarMath.SECONDS_PER_DAY);
+
+                for (int zenith = 0; zenith < zeniths.length; zenith++) {
+                    calculator.fillRange(latitudes[station], longitudes[station], startDay, days, zeniths[zenith],
+                            utcOffset, rangeRises, rangeSets, states);
+                    for (int day = 0; day < days; day++) {
+                        sunrises[day * zeniths.length + zenith] = rangeRises[day];
+                        sunsets[day * zeniths.length + zenith] = rangeSets[day];
+                    }
+                }
+
+                byte[] record;
+                if (format == Format.CSV) {
+                    text.setLength(0);
+                    appendCsv(text, ids[station], zone, sunrises, sunsets);
+                    record = text.toString().getBytes(UTF_8);
+                } else {
+                    record = binary(ids[station], sunrises, sunsets);
+                }
+
+                if (record.length > buffer.remaining()) {
+                    flush(buffer);
+                    if (record.length > buffer.capacity()) {
+                        buffer = ByteBuffer.allocate(record.length);
+                    }
+                }
+                buffer.put(record);
+            }
+            flush(buffer);
+
+            report.stations.addAndGet(count);
+            report.results.addAndGet((long) count * results);
+        }
+
+        private void appendCsv(StringBuilder text, String id, ZoneOffsets zone, long[] sunrises, long[] sunsets) {
+            id = csvField(id);
+            for (int day = 0; day < days; day++) {
+                for (int zenith = 0; zenith < zeniths.length; zenith++) {
+                    int index = day * zeniths.length + zenith;
+                    text.append(id).append(',');
+                    LocalTimes.appendDate(text, startDay + day);
+                    text.append(',').append(zenithName(zeniths[zenith])).append(',');
+                    appendEvent(text, zone, sunrises[index]);
+                    text.append(',');
+                    appendEvent(text, zone, sunsets[index]);
+                    text.append('\n');
+                }
+            }
+        }
+
+        private void appendEvent(StringBuilder text, ZoneOffsets zone, long event) {
+            if (event == SolarMath.UP_ALL_DAY) {
+                text.append("up_all_day");
+            } else if (event == SolarMath.DOWN_ALL_DAY) {
+                text.append("down_all_day");
+            } else {
+                LocalTimes.appendDateTime(text, zone.toLocalTime(event));
+            }
+        }
+
+        private byte[] binary(String id, long[] sunrises, long[] sunsets) {
+            byte[] idBytes = id.getBytes(UTF_8);
+            ByteBuffer record = ByteBuffer.allocate(2 + idBytes.length + sunrises.length * 16);
+            record.putShort((short) idBytes.length);
+            record.put(idBytes);
+            for (int i = 0; i < sunrises.length; i++) {
+                record.putLong(sunrises[i]);
+                record.putLong(sunsets[i]);
+            }
+            return record.array();
+        }
+
+        private void flush(ByteBuffer buffer) throws IOException {
+            buffer.flip();
+            report.bytes.addAndGet(buffer.remaining());
+            synchronized (channel) {
+                writeFully(channel, buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    static String zenithName(double zenith) {
+        if (zenith == SolarInfo.ZENITH_OFFICIAL) return "official";
+        if (zenith == SolarInfo.ZENITH_CIVIL) return "civil";
+        if (zenith == SolarInfo.ZENITH_NAUTICAL) return "nautical";
+        if (zenith == SolarInfo.ZENITH_ASTRONOMICAL) return "astronomical";
+        return Double.toString(zenith);
+    }
+
+    /**
+     * Counters of a run, updated by all threads.
+     */
+    public static class BatchReport {
+        private final AtomicLong stations = new AtomicLong();
+        private final AtomicLong results = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private long nanos;
+
+        public long getStations() {
+            return stations.get();
+        }
+
+        public long getResults() {
+            return results.get();
+        }
+
+        public long getSkipped() {
+            return skipped.get();
+        }
+
+        public long getBytes() {
+            return bytes.get();
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = nanos / 1e9;
+            return String.format(Locale.ROOT,
+                    "%d stations, %d results, %d lines skipped, %.1f MB written in %.2f s: "
+                            + "%.0f stations/s, %.0f results/s",
+                    getStations(), getResults(), getSkipped(), getBytes() / 1e6, seconds,
+                    getStations() / seconds, getResults() / seconds);
+        }
+    }
+}
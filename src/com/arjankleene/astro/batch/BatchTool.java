@@ -0,0 +1,117 @@
+package com.arjankleene.astro.batch;
+
+import com.arjankleene.astro.SolarCalculator;
+import com.arjankleene.astro.SolarInfo;
+import com.arjankleene.astro.SolarMath;
+
+import java.io.File;
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Command-line entry point of the {@link BatchProcessor}.
+ *
+ * <pre>
+ * BatchTool [--format csv|binary] [--start yyyy-mm-dd] [--days n] [--zeniths official,civil,...]
+ *           [--engine williams|table|noaa] [--threads n] input.csv output
+ * </pre>
+ *
+ * Zeniths are given as names (official, civil, nautical, astronomical) or in degrees. By
+ * default, the official sunrise and sunset of today are written as CSV, using a thread per
+ * available processor. The throughput report, with the number of lines that were skipped
+ * because they are not valid stations, is printed to standard error.
+ */
+public class BatchTool {
+
+    private BatchTool() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        BatchProcessor.Format format = BatchProcessor.Format.CSV;
+        long startDay = today();
+        int days = 1;
+        double[] zeniths = {SolarInfo.ZENITH_OFFICIAL};
+        int threads = Runtime.getRuntime().availableProcessors();
+        SolarCalculator calculator = SolarCalculator.WILLIAMS;
+
+        int i = 0;
+        try {
+            for (; i < args.length - 2; i += 2) {
+                String value = args[i + 1];
+                if (args[i].equals("--format")) {
+                    format = BatchProcessor.Format.valueOf(value.toUpperCase(Locale.ROOT));
+                } else if (args[i].equals("--start")) {
+                    startDay = parseDate(value);
+                } else if (args[i].equals("--days")) {
+                    days = Integer.parseInt(value);
+                } else if (args[i].equals("--zeniths")) {
+                    zeniths = parseZeniths(value);
+                } else if (args[i].equals("--engine")) {
+                    calculator = parseEngine(value);
+                } else if (args[i].equals("--threads")) {
+                    threads = Integer.parseInt(value);
+                } else {
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (i != args.length - 2) {
+                throw new IllegalArgumentException("Input and output files are required");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: BatchTool [--format csv|binary] [--start yyyy-mm-dd] [--days n]"
+                    + " [--zeniths official,civil,...] [--engine williams|table|noaa] [--threads n]"
+                    + " input.csv output");
+            System.exit(2);
+            return;
+        }
+
+        BatchProcessor processor = new BatchProcessor(startDay, days, zeniths, format, threads, calculator);
+        BatchProcessor.BatchReport report = processor.process(new File(args[i]), new File(args[i + 1]));
+        System.err.println(report);
+    }
+
+    private static long today() {
+        Calendar now = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        return SolarMath.epochDay(now.get(Calendar.YEAR), now.get(Calendar.MONTH) + 1,
+                now.get(Calendar.DAY_OF_MONTH));
+    }
+
+    static long parseDate(String value) {
+        String[] fields = value.split("-");
+        if (fields.length != 3) {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+        return SolarMath.epochDay(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]),
+                Integer.parseInt(fields[2]));
+    }
+
+    static SolarCalculator parseEngine(String value) {
+        for (SolarCalculator calculator : new SolarCalculator[]{
+                SolarCalculator.WILLIAMS, SolarCalculator.TABLE, SolarCalculator.NOAA}) {
+            if (calculator.getName().equals(value)) return calculator;
+        }
+        throw new IllegalArgumentException("Unknown engine: " + value);
+    }
+
+    static double[] parseZeniths(String value) {
+        String[] names = value.split(",");
+        double[] zeniths = new double[names.length];
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i].trim();
+            if (name.equals("official")) {
+                zeniths[i] = SolarInfo.ZENITH_OFFICIAL;
+            } else if (name.equals("civil")) {
+                zeniths[i] = SolarInfo.ZENITH_CIVIL;
+            } else if (name.equals("nautical")) {
+                zeniths[i] = SolarInfo.ZENITH_NAUTICAL;
+            } else if (name.equals("astronomical")) {
+                zeniths[i] = SolarInfo.ZENITH_ASTRONOMICAL;
+            } else {
+                zeniths[i] = Double.parseDouble(name);
+            }
+        }
+        return zeniths;
+    }
+}
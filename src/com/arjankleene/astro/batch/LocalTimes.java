@@ -0,0 +1,53 @@
+package com.arjankleene.astro.batch;
+
+import com.arjankleene.astro.SolarMath;
+
+/**
+ * Format local times without creating any calendars.
+ */
+final class LocalTimes {
+
+    private LocalTimes() {
+    }
+
+    /**
+     * Append a date as yyyy-MM-dd.
+     *
+     * @param epochDay the date as days since 1970-01-01
+     */
+    static void appendDate(StringBuilder text, long epochDay) {
+        text.append(SolarMath.year(epochDay)).append('-');
+        appendTwoDigits(text, SolarMath.month(epochDay));
+        text.append('-');
+        appendTwoDigits(text, SolarMath.dayOfMonth(epochDay));
+    }
+
+    /**
+     * Append a local time as yyyy-MM-ddTHH:mm:ss.
+     *
+     * @param localTime seconds since 1970-01-01 00:00 local time
+     */
+    static void appendDateTime(StringBuilder text, long localTime) {
+        long epochDay = localTime / SolarMath.SECONDS_PER_DAY;
+        long seconds = localTime % SolarMath.SECONDS_PER_DAY;
+        if (seconds < 0) {
+            epochDay--;
+            seconds += SolarMath.SECONDS_PER_DAY;
+        }
+
+        appendDate(text, epochDay);
+        text.append('T');
+        appendTwoDigits(text, seconds / 3600);
+        text.append(':');
+        appendTwoDigits(text, seconds / 60 % 60);
+        text.append(':');
+        appendTwoDigits(text, seconds % 60);
+    }
+
+    private static void appendTwoDigits(StringBuilder text, long value) {
+        if (value < 10) {
+            text.append('0');
+        }
+        text.append(value);
+    }
+}
@@ -0,0 +1,37 @@
+package com.arjankleene.weather_station;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.arjankleene.astro.TransitionAlarm;
+
+/**
+ * Alarm on the main thread, for a scheduler that updates the views.
+ *
+ * The handler counts uptime, so while the device sleeps the alarm is delayed; the scheduler
+ * then delivers the transitions that passed. A kiosk keeps the device awake.
+ */
+class HandlerAlarm implements TransitionAlarm {
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private Runnable pending;
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public void set(long epochMillis, Runnable callback) {
+        cancel();
+        pending = callback;
+        handler.postDelayed(callback, Math.max(0, epochMillis - System.currentTimeMillis()));
+    }
+
+    @Override
+    public void cancel() {
+        if (pending != null) {
+            handler.removeCallbacks(pending);
+            pending = null;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.arjankleene.weather_station;
+
+import com.arjankleene.astro.SolarEvent;
+import com.arjankleene.astro.SolarThresholds;
+
+/**
+ * Day, the three twilights and night, bounded by the zeniths of {@link SolarThresholds}.
+ */
+enum LightPhase {
+    DAY(R.string.day),
+    CIVIL_TWILIGHT(R.string.civil_twilight),
+    NAUTICAL_TWILIGHT(R.string.nautical_twilight),
+    ASTRONOMICAL_TWILIGHT(R.string.astronomical_twilight),
+    NIGHT(R.string.night);
+
+    /** The zeniths that bound the phases, from official to astronomical */
+    private static final double[] ZENITHS = SolarThresholds.getDefaultZeniths();
+
+    final int label;
+
+    LightPhase(int label) {
+        this.label = label;
+    }
+
+    /**
+     * Get the phase for an elevation of the sun in degrees.
+     */
+    static LightPhase forElevation(double elevation) {
+        int below = 0;
+        for (double zenith : ZENITHS) {
+            if (elevation <= 90 - zenith) {
+                below++;
+            }
+        }
+        return values()[below];
+    }
+
+    /**
+     * Get the phase that starts at a transition of one of the default zeniths.
+     */
+    static LightPhase after(SolarEvent event) {
+        int index = 0;
+        while (ZENITHS[index] != event.getZenith()) {
+            index++;
+        }
+        return values()[event.isRising() ? index : index + 1];
+    }
+}
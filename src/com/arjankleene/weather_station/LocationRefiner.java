@@ -0,0 +1,124 @@
+package com.arjankleene.weather_station;
+
+import android.location.Location;
+import com.arjankleene.astro.SolarInfo;
+import com.arjankleene.astro.SolarMath;
+
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+/**
+ * Decide which location fixes are worth recalculating the times for.
+ *
+ * Any first fix is used, however inaccurate, so times can be shown right away, and so is the
+ * first fix on a new local date. Later fixes are only used when they are not less accurate
+ * than the current one (unless the current one is old), and when the move would change
+ * sunrise or sunset by at least the threshold.
+ *
+ * The change is estimated without recalculating: a degree of longitude moves the times by
+ * four minutes, and the effect of latitude is measured once for each used location. The
+ * measurement calculates times, so it is left to the background thread; until it is done,
+ * any move in latitude counts.
+ */
+class LocationRefiner {
+
+    private static final long MAX_AGE_MILLIS = 2 * 60 * 1000;
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000;
+    private static final double SECONDS_PER_DEGREE_LONGITUDE = 240;
+    private static final double LATITUDE_STEP = 0.05;
+
+    private final int thresholdSeconds;
+
+    private volatile Location current;
+    private long currentDay;
+    private volatile double secondsPerDegreeLatitude;
+
+    /**
+     * @param thresholdSeconds the smallest change in sunrise or sunset that is worth a recalculation
+     */
+    LocationRefiner(int thresholdSeconds) {
+        this.thresholdSeconds = thresholdSeconds;
+    }
+
+    /**
+     * Check the candidate fix and make it the current location when the times should be recalculated.
+     */
+    boolean accept(Location candidate) {
+        long today = today();
+        if (current != null && currentDay == today) {
+            boolean lessAccurate = !candidate.hasAccuracy()
+                    || (current.hasAccuracy() && candidate.getAccuracy() > current.getAccuracy());
+            boolean newer = candidate.getElapsedRealtimeNanos() - current.getElapsedRealtimeNanos()
+                    > MAX_AGE_MILLIS * 1000000;
+            if (lessAccurate && !newer) {
+                return false;
+            }
+            if (estimateShift(candidate) < thresholdSeconds) {
+                return false;
+            }
+        }
+
+        current = candidate;
+        currentDay = today;
+        secondsPerDegreeLatitude = Double.POSITIVE_INFINITY;
+        return true;
+    }
+
+    /**
+     * Forget the current location, so the next fix is used.
+     */
+    void reset() {
+        current = null;
+    }
+
+    /**
+     * Measure the effect of latitude on the times at an accepted location. Runs on the background executor.
+     */
+    void measure(Location location) {
+        double effect = measureLatitudeEffect(location.getLatitude(), location.getLongitude());
+        if (location == current) {
+            secondsPerDegreeLatitude = effect;
+        }
+    }
+
+    /**
+     * Estimate by how many seconds the times would change when moving to the candidate.
+     */
+    double estimateShift(Location candidate) {
+        double longitude = Math.abs(candidate.getLongitude() - current.getLongitude());
+        if (longitude > 180) {
+            longitude = 360 - longitude;
+        }
+        double latitude = Math.abs(candidate.getLatitude() - current.getLatitude());
+        if (latitude == 0) {
+            return longitude * SECONDS_PER_DEGREE_LONGITUDE;
+        }
+
+        return longitude * SECONDS_PER_DEGREE_LONGITUDE + latitude * secondsPerDegreeLatitude;
+    }
+
+    /**
+     * Get the local date as days since 1970-01-01, without resolving the zone's transitions.
+     */
+    private static long today() {
+        long now = System.currentTimeMillis();
+        return (now + TimeZone.getDefault().getOffset(now)) / MILLIS_PER_DAY;
+    }
+
+    private static double measureLatitudeEffect(double latitude, double longitude) {
+        long epochDay = SolarInfo.epochDay(new GregorianCalendar());
+        double other = latitude > 0 ? latitude - LATITUDE_STEP : latitude + LATITUDE_STEP;
+
+        long rise = SolarMath.sunRise(epochDay, latitude, longitude, SolarInfo.ZENITH_OFFICIAL, 0);
+        long set = SolarMath.sunSet(epochDay, latitude, longitude, SolarInfo.ZENITH_OFFICIAL, 0);
+        long otherRise = SolarMath.sunRise(epochDay, other, longitude, SolarInfo.ZENITH_OFFICIAL, 0);
+        long otherSet = SolarMath.sunSet(epochDay, other, longitude, SolarInfo.ZENITH_OFFICIAL, 0);
+
+        if (!SolarMath.isEvent(rise) || !SolarMath.isEvent(set)
+                || !SolarMath.isEvent(otherRise) || !SolarMath.isEvent(otherSet)) {
+            // close to polar day or night any move may matter
+            return Double.POSITIVE_INFINITY;
+        }
+        return Math.max(Math.abs(rise - otherRise), Math.abs(set - otherSet)) / LATITUDE_STEP;
+    }
+}
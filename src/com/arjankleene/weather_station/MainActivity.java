@@ -13,23 +13,48 @@ import android.provider.Settings;
 import android.view.View;
 import android.widget.TextView;
 import android.widget.Toast;
+import com.arjankleene.astro.SolarCache;
+import com.arjankleene.astro.SolarEvent;
 import com.arjankleene.astro.SolarInfo;
+import com.arjankleene.astro.SolarMath;
+import com.arjankleene.astro.SolarPosition;
+import com.arjankleene.astro.SolarTimes;
+import com.arjankleene.astro.TransitionScheduler;
+import com.arjankleene.astro.ZoneOffsets;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class MainActivity extends Activity {
 
+    /** Results for recently seen locations, shared by all instances of the activity */
+    private static final SolarCache solarCache = new SolarCache(32, 0.01);
+
     private LocationManager locationManager;
+    private ExecutorService executor;
+    private SavedTimes savedTimes;
+    private LocationRefiner locationRefiner;
+    private final StartupLatency latency = new StartupLatency();
+    private final HandlerAlarm alarm = new HandlerAlarm();
+    private TransitionScheduler scheduler;
+    /** The location of the last scheduled transitions, to schedule them again after a restart */
+    private boolean hasTransitionLocation;
+    private double transitionLatitude;
+    private double transitionLongitude;
     private final LocationListener locationListener = new LocationListener() {
         @Override
         public void onLocationChanged(Location location) {
+            useLocation(location);
+
             if (location.hasAccuracy() && location.getAccuracy() < 100) {
                 stopLocationUpdates();
                 Toast.makeText(getBaseContext(), "Found accurate location", Toast.LENGTH_SHORT).show();
                 hideProgressIndicator();
-                displayTimes(location);
             }
         }
 
@@ -40,12 +65,18 @@ public class MainActivity extends Activity {
 
         @Override
         public void onProviderEnabled(String provider) {
+            if (!LocationManager.GPS_PROVIDER.equals(provider)) {
+                return;
+            }
             Toast.makeText(getBaseContext(), "Gps is turned on!! ",
                     Toast.LENGTH_SHORT).show();
         }
 
         @Override
         public void onProviderDisabled(String provider) {
+            if (!LocationManager.GPS_PROVIDER.equals(provider)) {
+                return;
+            }
             Intent intent = new Intent(Settings.ACTION_LOCATION_SOURCE_SETTINGS);
             startActivity(intent);
             Toast.makeText(getBaseContext(), "Gps is turned off!! ",
@@ -64,18 +95,47 @@ public class MainActivity extends Activity {
         clearTimes();
 
         locationManager = (LocationManager) getSystemService(Context.LOCATION_SERVICE);
+        savedTimes = new SavedTimes(getApplicationContext());
+        locationRefiner = new LocationRefiner(getResources().getInteger(R.integer.recalculation_threshold_seconds));
+        executor = Executors.newSingleThreadExecutor();
+
+        restoreTimes();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        executor.shutdownNow();
     }
 
     @Override
     protected void onStart() {
         super.onStart();
 
+        // the transitions were stopped with the activity, resume them until a new location is known
+        if (hasTransitionLocation) {
+            startTransitions(transitionLatitude, transitionLongitude);
+        }
+
         if (checkSelfPermission(Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
             requestPermissions(new String[]{Manifest.permission.ACCESS_FINE_LOCATION}, 1);
         } else {
+            latency.start();
             showProgressIndicator();
             Toast.makeText(getBaseContext(), "Looking for current location", Toast.LENGTH_SHORT).show();
+
+            // Start with whatever location is known, later fixes refine it. The date may have
+            // changed since the activity was stopped, so the known location is used again.
+            locationRefiner.reset();
+            Location lastKnown = getLastKnownLocation();
+            if (lastKnown != null) {
+                useLocation(lastKnown);
+            }
+
             locationManager.requestLocationUpdates(LocationManager.GPS_PROVIDER, 2500, 5, locationListener);
+            if (locationManager.isProviderEnabled(LocationManager.NETWORK_PROVIDER)) {
+                locationManager.requestLocationUpdates(LocationManager.NETWORK_PROVIDER, 2500, 5, locationListener);
+            }
         }
     }
 
@@ -83,26 +143,175 @@ public class MainActivity extends Activity {
     protected void onStop() {
         super.onStop();
         stopLocationUpdates();
+        stopTransitions();
+    }
+
+    /**
+     * Show the times of the last location right away, before any location update arrives.
+     */
+    private void restoreTimes() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!savedTimes.hasLocation()) {
+                    return;
+                }
+
+                GregorianCalendar today = new GregorianCalendar();
+                if (savedTimes.getEpochDay() == SolarInfo.epochDay(today)) {
+                    postTimes(savedTimes.getSunRise(), savedTimes.getSunSet());
+                } else {
+                    calculateTimes(today, savedTimes.getLatitude(), savedTimes.getLongitude());
+                }
+            }
+        });
+    }
+
+    /**
+     * Get the most accurate of the last known locations of the GPS, network and passive providers.
+     */
+    private Location getLastKnownLocation() {
+        Location best = null;
+        for (String provider : locationManager.getProviders(true)) {
+            Location location = locationManager.getLastKnownLocation(provider);
+            if (location == null) {
+                continue;
+            }
+            // a location without accuracy reports 0, so it never replaces one that has it
+            if (best == null || (location.hasAccuracy()
+                    && (!best.hasAccuracy() || location.getAccuracy() < best.getAccuracy()))) {
+                best = location;
+            }
+        }
+        return best;
+    }
+
+    private void useLocation(Location location) {
+        latency.fixAcquired();
+        if (locationRefiner.accept(location)) {
+            displayTimes(location);
+        }
     }
 
-    private void displayTimes(Location location) {
-        SolarInfo info = new SolarInfo(new GregorianCalendar(), location);
+    private void displayTimes(final Location location) {
+        final double latitude = location.getLatitude();
+        final double longitude = location.getLongitude();
 
-        TextView sunriseTime = (TextView) findViewById(R.id.sunriseTime);
-        TextView sunsetTime = (TextView) findViewById(R.id.sunsetTime);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                locationRefiner.measure(location);
+                calculateTimes(new GregorianCalendar(), latitude, longitude);
+            }
+        });
+    }
+
+    /**
+     * Calculate, save and show the times. Runs on the background executor.
+     */
+    private void calculateTimes(GregorianCalendar date, double latitude, double longitude) {
+        SolarTimes times = solarCache.get(date, latitude, longitude, SolarInfo.ZENITH_OFFICIAL);
+        latency.calculated();
+        savedTimes.save(latitude, longitude, SolarInfo.epochDay(date), times.getSunRise(), times.getSunSet());
+
+        postTimes(times.getSunRise(), times.getSunSet());
+        postTransitions(latitude, longitude);
+    }
+
+    /**
+     * Show the current light phase and switch it, and the times, at each following transition.
+     */
+    private void postTransitions(final double latitude, final double longitude) {
+        runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                if (isDestroyed()) {
+                    return;
+                }
+                startTransitions(latitude, longitude);
+            }
+        });
+    }
+
+    /**
+     * Show the current light phase and schedule the transitions of the location. Runs on the main thread.
+     */
+    private void startTransitions(final double latitude, final double longitude) {
+        SolarPosition position = new SolarPosition(latitude, longitude);
+        position.update(System.currentTimeMillis());
+        showPhase(LightPhase.forElevation(position.getElevation()));
+
+        stopTransitions();
+        hasTransitionLocation = true;
+        transitionLatitude = latitude;
+        transitionLongitude = longitude;
 
-        GregorianCalendar sunrise = info.getSunRise();
-        displayTimeInField(sunrise, sunriseTime);
+        int utcOffset = ZoneOffsets.forZone(TimeZone.getDefault())
+                .getStandardOffset(System.currentTimeMillis() / 1000);
+        scheduler = new TransitionScheduler(alarm, new TransitionScheduler.Listener() {
+            @Override
+            public void onTransition(SolarEvent event) {
+                showPhase(LightPhase.after(event));
+                if (event.getZenith() == SolarInfo.ZENITH_OFFICIAL) {
+                    recalculateTimes(latitude, longitude);
+                }
+            }
+        }, latitude, longitude, utcOffset);
+        scheduler.start();
+    }
+
+    private void recalculateTimes(final double latitude, final double longitude) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                SolarTimes times = solarCache.get(new GregorianCalendar(), latitude, longitude,
+                        SolarInfo.ZENITH_OFFICIAL);
+                postTimes(times.getSunRise(), times.getSunSet());
+            }
+        });
+    }
+
+    private void stopTransitions() {
+        if (scheduler != null) {
+            scheduler.stop();
+            scheduler = null;
+        }
+    }
 
-        GregorianCalendar sunset = info.getSunSet();
-        displayTimeInField(sunset, sunsetTime);
+    private void showPhase(LightPhase phase) {
+        TextView lightPhase = (TextView) findViewById(R.id.lightPhase);
+        lightPhase.setText(phase.label);
+    }
+
+    /**
+     * Format the times on the current thread and only show the resulting strings on the main thread.
+     */
+    private void postTimes(long sunrise, long sunset) {
+        final String sunriseText = formatEvent(sunrise);
+        final String sunsetText = formatEvent(sunset);
+
+        runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                if (isDestroyed()) {
+                    return;
+                }
+
+                TextView sunriseTime = (TextView) findViewById(R.id.sunriseTime);
+                TextView sunsetTime = (TextView) findViewById(R.id.sunsetTime);
+
+                sunriseTime.setText(sunriseText);
+                sunsetTime.setText(sunsetText);
+                latency.displayed();
+            }
+        });
     }
 
-    private void displayTimeInField(GregorianCalendar calendar, TextView txtView) {
-        if (calendar != null) {
-            txtView.setText(formatTime(calendar));
+    private static String formatEvent(long event) {
+        if (SolarMath.isEvent(event)) {
+            return formatTime(event);
         } else {
-            txtView.setText("");
+            return "";
         }
     }
 
@@ -128,14 +337,13 @@ public class MainActivity extends Activity {
         sunsetTime.setText("");
     }
 
-    private static String formatTime(GregorianCalendar calendar){
-        return formatTime(calendar, DateFormat.SHORT);
+    private static String formatTime(long epochSecond){
+        return formatTime(epochSecond, DateFormat.SHORT);
     }
 
-    private static String formatTime(GregorianCalendar calendar, int style){
+    private static String formatTime(long epochSecond, int style){
         DateFormat fmt = SimpleDateFormat.getTimeInstance(style);
-        fmt.setCalendar(calendar);
-        String dateFormatted = fmt.format(calendar.getTime());
+        String dateFormatted = fmt.format(new Date(epochSecond * 1000));
         return dateFormatted;
     }
 }
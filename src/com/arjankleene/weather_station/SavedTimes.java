@@ -0,0 +1,63 @@
+package com.arjankleene.weather_station;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * The last location and the times calculated for it, kept between starts of the app.
+ *
+ * Reading the preferences may hit the disk, so this should not be used on the main thread.
+ */
+class SavedTimes {
+
+    private static final String PREFERENCES = "saved_times";
+
+    private static final String KEY_LATITUDE = "latitude";
+    private static final String KEY_LONGITUDE = "longitude";
+    private static final String KEY_EPOCH_DAY = "epoch_day";
+    private static final String KEY_SUNRISE = "sunrise";
+    private static final String KEY_SUNSET = "sunset";
+
+    private final SharedPreferences preferences;
+
+    SavedTimes(Context context) {
+        preferences = context.getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+    }
+
+    boolean hasLocation() {
+        return preferences.contains(KEY_LATITUDE) && preferences.contains(KEY_LONGITUDE);
+    }
+
+    double getLatitude() {
+        return Double.longBitsToDouble(preferences.getLong(KEY_LATITUDE, 0));
+    }
+
+    double getLongitude() {
+        return Double.longBitsToDouble(preferences.getLong(KEY_LONGITUDE, 0));
+    }
+
+    /**
+     * The local date the saved times were calculated for, as days since 1970-01-01.
+     */
+    long getEpochDay() {
+        return preferences.getLong(KEY_EPOCH_DAY, Long.MIN_VALUE);
+    }
+
+    long getSunRise() {
+        return preferences.getLong(KEY_SUNRISE, 0);
+    }
+
+    long getSunSet() {
+        return preferences.getLong(KEY_SUNSET, 0);
+    }
+
+    void save(double latitude, double longitude, long epochDay, long sunrise, long sunset) {
+        preferences.edit()
+                .putLong(KEY_LATITUDE, Double.doubleToRawLongBits(latitude))
+                .putLong(KEY_LONGITUDE, Double.doubleToRawLongBits(longitude))
+                .putLong(KEY_EPOCH_DAY, epochDay)
+                .putLong(KEY_SUNRISE, sunrise)
+                .putLong(KEY_SUNSET, sunset)
+                .apply();
+    }
+}
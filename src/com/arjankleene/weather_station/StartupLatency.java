@@ -0,0 +1,54 @@
+package com.arjankleene.weather_station;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+/**
+ * Record how long it takes from starting to look for a location until the first times are shown.
+ *
+ * Only the first fix, calculation and display after {@link #start()} are recorded. The
+ * marks may come from different threads.
+ */
+class StartupLatency {
+
+    private static final String TAG = "StartupLatency";
+
+    private volatile long started;
+    private volatile long fixed;
+    private volatile long calculated;
+    private volatile long displayed;
+
+    void start() {
+        started = SystemClock.elapsedRealtimeNanos();
+        fixed = 0;
+        calculated = 0;
+        displayed = 0;
+    }
+
+    void fixAcquired() {
+        if (fixed == 0) {
+            fixed = SystemClock.elapsedRealtimeNanos();
+        }
+    }
+
+    void calculated() {
+        if (calculated == 0) {
+            calculated = SystemClock.elapsedRealtimeNanos();
+        }
+    }
+
+    /**
+     * Mark that times are shown, and log the timings the first time.
+     */
+    void displayed() {
+        if (displayed == 0 && started != 0) {
+            displayed = SystemClock.elapsedRealtimeNanos();
+            Log.i(TAG, "fix: " + millisSinceStart(fixed) + " ms, calculated: " + millisSinceStart(calculated)
+                    + " ms, displayed: " + millisSinceStart(displayed) + " ms");
+        }
+    }
+
+    private long millisSinceStart(long mark) {
+        return mark == 0 ? -1 : (mark - started) / 1000000;
+    }
+}
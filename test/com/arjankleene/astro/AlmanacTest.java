@@ -0,0 +1,94 @@
+package com.arjankleene.astro;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.arjankleene.astro.SolarInfoTest.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for writing and reading the binary almanac format
+ */
+public class AlmanacTest {
+
+    private static final List<Station> STATIONS = Arrays.asList(
+            new Station("enschede", ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, 3600),
+            new Station("auckland", AUCKLAND_LATITUDE, AUCKLAND_LONGITUDE, 43200),
+            new Station("longyearbyen", LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE, 3600));
+
+    @org.junit.Test
+    public void testWriteAndRead() throws Exception {
+        long startDay = SolarMath.epochDay(2016, 1, 1);
+        File file = File.createTempFile("almanac", ".bin");
+        try {
+            AlmanacWriter.write(file, startDay, 366, SolarThresholds.getDefaultZeniths(), STATIONS);
+            Almanac almanac = Almanac.open(file);
+
+            assertEquals(Almanac.VERSION, almanac.getVersion());
+            assertEquals(startDay, almanac.getStartDay());
+            assertEquals(366, almanac.getDays());
+            assertEquals(3, almanac.getStationCount());
+            assertArrayEquals(SolarThresholds.getDefaultZeniths(), almanac.getZeniths(), 0);
+            assertEquals(SolarThresholds.NAUTICAL, almanac.indexOfZenith(SolarInfo.ZENITH_NAUTICAL));
+
+            for (Station station : STATIONS) {
+                int index = almanac.indexOf(station.getId());
+                assertEquals(station, almanac.getStation(index));
+
+                for (long day = startDay; day < startDay + 366; day++) {
+                    for (int zenith = 0; zenith < SolarThresholds.getDefaultZeniths().length; zenith++) {
+                        double z = SolarThresholds.getDefaultZeniths()[zenith];
+                        assertEvent(SolarMath.sunRise(day, station.getLatitude(), station.getLongitude(), z,
+                                station.getUtcOffset()), almanac.getSunRise(index, day, zenith));
+                        assertEvent(SolarMath.sunSet(day, station.getLatitude(), station.getLongitude(), z,
+                                station.getUtcOffset()), almanac.getSunSet(index, day, zenith));
+                    }
+                }
+            }
+            assertEquals(-1, almanac.indexOf("berlin"));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @org.junit.Test
+    public void testPolarValues() throws Exception {
+        long startDay = SolarMath.epochDay(2016, 1, 1);
+        File file = File.createTempFile("almanac", ".bin");
+        try {
+            AlmanacWriter.write(file, startDay, 366, new double[]{SolarInfo.ZENITH_OFFICIAL}, STATIONS);
+            Almanac almanac = Almanac.open(file);
+            int longyearbyen = almanac.indexOf("longyearbyen");
+
+            assertEquals(SolarMath.DOWN_ALL_DAY, almanac.getSunSet(longyearbyen, SolarMath.epochDay(2016, 2, 1), 0));
+            assertEquals(SolarMath.UP_ALL_DAY, almanac.getSunSet(longyearbyen, SolarMath.epochDay(2016, 7, 1), 0));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @org.junit.Test(expected = IOException.class)
+    public void testInvalidFile() throws Exception {
+        File file = File.createTempFile("almanac", ".bin");
+        try {
+            FileOutputStream output = new FileOutputStream(file);
+            output.write(new byte[64]);
+            output.close();
+
+            Almanac.open(file);
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static void assertEvent(long expected, long actual) {
+        if (SolarMath.isEvent(expected)) {
+            assertEquals(expected, actual, 30.0);
+        } else {
+            assertEquals(expected, actual);
+        }
+    }
+}
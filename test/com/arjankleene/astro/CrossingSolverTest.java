@@ -0,0 +1,93 @@
+package com.arjankleene.astro;
+
+import static com.arjankleene.astro.SolarInfoTest.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for finding the times at which the sun crosses an elevation
+ */
+public class CrossingSolverTest {
+
+    private static final double[] ELEVATIONS = {90 - SolarInfo.ZENITH_OFFICIAL, 6, -6, 20};
+
+    @org.junit.Test
+    public void testElevationAtCrossings() throws Exception {
+        CrossingSolver solver = new CrossingSolver(BERLIN_LATITUDE, BERLIN_LONGITUDE);
+        SolarPosition position = new SolarPosition(BERLIN_LATITUDE, BERLIN_LONGITUDE);
+
+        long startDay = SolarMath.epochDay(2016, 1, 1);
+        long[] rising = new long[366 * ELEVATIONS.length];
+        long[] setting = new long[rising.length];
+        solver.solveRange(startDay, 366, ELEVATIONS, rising, setting);
+
+        for (int i = 0; i < rising.length; i++) {
+            double elevation = ELEVATIONS[i % ELEVATIONS.length];
+            if (elevation == 20 && !SolarMath.isEvent(rising[i])) {
+                // the sun does not reach 20 degrees in winter
+                assertEquals(SolarMath.DOWN_ALL_DAY, rising[i]);
+                continue;
+            }
+
+            position.update(rising[i] * 1000);
+            assertEquals(elevation, position.getElevation(), 0.01);
+            assertTrue(position.getAzimuth() < 180);
+
+            position.update(setting[i] * 1000);
+            assertEquals(elevation, position.getElevation(), 0.01);
+            assertTrue(position.getAzimuth() > 180);
+        }
+    }
+
+    @org.junit.Test
+    public void testMatchesSunRiseAndSet() throws Exception {
+        CrossingSolver solver = new CrossingSolver(ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE);
+        long epochDay = SolarMath.epochDay(2016, 3, 9);
+        long[] rising = new long[1];
+        long[] setting = new long[1];
+
+        solver.solve(epochDay, new double[]{90 - SolarInfo.ZENITH_OFFICIAL}, rising, setting);
+
+        assertEquals(SolarMath.sunRise(epochDay, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 0),
+                rising[0], 60.0);
+        assertEquals(SolarMath.sunSet(epochDay, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 0),
+                setting[0], 60.0);
+    }
+
+    @org.junit.Test
+    public void testWarmStart() throws Exception {
+        long startDay = SolarMath.epochDay(2016, 1, 1);
+        long[] rising = new long[366 * ELEVATIONS.length];
+        long[] setting = new long[rising.length];
+
+        CrossingSolver range = new CrossingSolver(ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE);
+        range.solveRange(startDay, 366, ELEVATIONS, rising, setting);
+
+        CrossingSolver cold = new CrossingSolver(ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE);
+        long[] singleRising = new long[ELEVATIONS.length];
+        long[] singleSetting = new long[ELEVATIONS.length];
+        for (int day = 0; day < 366; day++) {
+            cold.solve(startDay + day, ELEVATIONS, singleRising, singleSetting);
+            for (int i = 0; i < ELEVATIONS.length; i++) {
+                assertEquals(singleRising[i], rising[day * ELEVATIONS.length + i], 1.0);
+                assertEquals(singleSetting[i], setting[day * ELEVATIONS.length + i], 1.0);
+            }
+        }
+
+        assertTrue(range.getIterations() < cold.getIterations());
+    }
+
+    @org.junit.Test
+    public void testPolar() throws Exception {
+        CrossingSolver solver = new CrossingSolver(LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE);
+        long[] rising = new long[1];
+        long[] setting = new long[1];
+
+        solver.solve(SolarMath.epochDay(2016, 7, 1), new double[]{6}, rising, setting);
+        assertEquals(SolarMath.UP_ALL_DAY, rising[0]);
+        assertEquals(SolarMath.UP_ALL_DAY, setting[0]);
+
+        solver.solve(SolarMath.epochDay(2016, 2, 1), new double[]{6}, rising, setting);
+        assertEquals(SolarMath.DOWN_ALL_DAY, rising[0]);
+        assertEquals(SolarMath.DOWN_ALL_DAY, setting[0]);
+    }
+}
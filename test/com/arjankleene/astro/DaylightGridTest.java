@@ -0,0 +1,83 @@
+package com.arjankleene.astro;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the parallel latitude/longitude grid engine
+ */
+public class DaylightGridTest {
+
+    @org.junit.Test
+    public void testGridMatchesSingleCalculations() throws Exception {
+        long epochDay = SolarMath.epochDay(2016, 3, 9);
+        DaylightGrid grid = new DaylightGrid(-80, -180, 80, 179, 1);
+        grid.compute(epochDay, SolarInfo.ZENITH_OFFICIAL);
+
+        assertEquals(161, grid.getRows());
+        assertEquals(360, grid.getColumns());
+
+        for (int row = 0; row < grid.getRows(); row += 7) {
+            for (int column = 0; column < grid.getColumns(); column += 11) {
+                double latitude = grid.getLatitude(row);
+                double longitude = grid.getLongitude(column);
+                int index = row * grid.getColumns() + column;
+
+                assertEquals(SolarMath.sunRise(epochDay, latitude, longitude, SolarInfo.ZENITH_OFFICIAL, 0),
+                        grid.getSunRises()[index]);
+                assertEquals(SolarMath.sunSet(epochDay, latitude, longitude, SolarInfo.ZENITH_OFFICIAL, 0),
+                        grid.getSunSets()[index]);
+            }
+        }
+    }
+
+    @org.junit.Test
+    public void testDayLengths() throws Exception {
+        DaylightGrid grid = new DaylightGrid(78, 15, 79, 16, 1);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            grid.compute(SolarMath.epochDay(2016, 7, 1), SolarInfo.ZENITH_OFFICIAL, pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(86400, grid.getDayLengths()[0]);
+
+        grid.compute(SolarMath.epochDay(2016, 2, 1), SolarInfo.ZENITH_OFFICIAL);
+        assertEquals(0, grid.getDayLengths()[0]);
+
+        DaylightGrid enschede = new DaylightGrid(52, 7, 52, 7, 1);
+        enschede.compute(SolarMath.epochDay(2016, 3, 9), SolarInfo.ZENITH_OFFICIAL);
+        int expected = (int) (enschede.getSunSets()[0] - enschede.getSunRises()[0]);
+        assertEquals(expected, enschede.getDayLengths()[0], 1);
+    }
+
+    @org.junit.Test
+    public void testPolarBoundaryDayLength() throws Exception {
+        // the first day after polar day in Alaska, on which only the morning is polar
+        DaylightGrid grid = new DaylightGrid(70, -150, 70, -150, 1);
+        long epochDay = SolarMath.epochDay(2016, 7, 26);
+
+        grid.compute(epochDay - 1, SolarInfo.ZENITH_OFFICIAL);
+        assertEquals(86400, grid.getDayLengths()[0]);
+        grid.compute(epochDay + 1, SolarInfo.ZENITH_OFFICIAL);
+        int next = grid.getDayLengths()[0];
+
+        grid.compute(epochDay, SolarInfo.ZENITH_OFFICIAL);
+        assertEquals(SolarMath.UP_ALL_DAY, grid.getSunRises()[0]);
+        assertTrue(SolarMath.isEvent(grid.getSunSets()[0]));
+        int dayLength = grid.getDayLengths()[0];
+        assertTrue(dayLength < 86400);
+        assertTrue(dayLength > next);
+    }
+
+    @org.junit.Test
+    public void testAntimeridian() throws Exception {
+        DaylightGrid grid = new DaylightGrid(-37, 170, -36, -170, 5);
+
+        assertEquals(5, grid.getColumns());
+        assertEquals(170, grid.getLongitude(0), 1e-9);
+        assertEquals(-180, grid.getLongitude(2), 1e-9);
+        assertEquals(-170, grid.getLongitude(4), 1e-9);
+    }
+}
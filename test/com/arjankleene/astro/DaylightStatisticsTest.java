@@ -0,0 +1,102 @@
+package com.arjankleene.astro;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static com.arjankleene.astro.SolarInfoTest.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the annual daylight statistics
+ */
+public class DaylightStatisticsTest {
+
+    private static final Station ENSCHEDE = new Station("enschede", ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, 3600);
+    private static final Station LONGYEARBYEN = new Station("longyearbyen", LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE, 3600);
+
+    @org.junit.Test
+    public void testMatchesDailyCalculations() throws Exception {
+        AnnualSummary summary = DaylightStatistics.summarize(ENSCHEDE, 2016);
+        assertEquals(366, summary.getDays());
+
+        long first = SolarMath.epochDay(2016, 1, 1);
+        long total = 0;
+        long earliest = Long.MAX_VALUE;
+        long latest = Long.MIN_VALUE;
+        long shortest = Long.MAX_VALUE;
+        long longest = Long.MIN_VALUE;
+        for (long day = first; day < first + 366; day++) {
+            long sunRise = SolarMath.sunRise(day, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600);
+            long sunSet = SolarMath.sunSet(day, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600);
+            long midnight = day * 86400 - 3600;
+            total += sunSet - sunRise;
+            earliest = Math.min(earliest, sunRise - midnight);
+            latest = Math.max(latest, sunSet - midnight);
+            shortest = Math.min(shortest, sunSet - sunRise);
+            longest = Math.max(longest, sunSet - sunRise);
+        }
+
+        // day lengths are truncated to whole seconds
+        assertEquals(total, summary.getTotalDaylight(), 2 * 366);
+        assertEquals(shortest, summary.getShortestDayLength(), 2);
+        assertEquals(longest, summary.getLongestDayLength(), 2);
+        assertEquals(earliest, summary.getEarliestSunRise() - (summary.getEarliestSunRise() + 3600) / 86400 * 86400 + 3600);
+        assertEquals(latest, summary.getLatestSunSet() - (summary.getLatestSunSet() + 3600) / 86400 * 86400 + 3600);
+
+        // the shortest day is near the December solstice, the earliest sunrise in June
+        assertEquals(SolarMath.epochDay(2016, 12, 21), summary.getShortestDay(), 3);
+        assertEquals(SolarMath.epochDay(2016, 6, 21), summary.getLongestDay(), 3);
+        assertEquals(SolarMath.epochDay(2016, 6, 17), (summary.getEarliestSunRise() + 3600) / 86400, 10);
+        assertEquals(SolarMath.epochDay(2016, 6, 25), (summary.getLatestSunSet() + 3600) / 86400, 10);
+
+        assertTrue(summary.getCivilTwilight() > 0);
+        assertTrue(summary.getNauticalTwilight() > summary.getCivilTwilight());
+        assertEquals(0, summary.getUpAllDays());
+        assertEquals(0, summary.getDownAllDays());
+    }
+
+    @org.junit.Test
+    public void testPolar() throws Exception {
+        AnnualSummary summary = DaylightStatistics.summarize(LONGYEARBYEN, 2016);
+
+        assertTrue(summary.getUpAllDays() > 100);
+        assertTrue(summary.getDownAllDays() > 80);
+        assertEquals(0, summary.getShortestDayLength());
+        assertEquals(86400, summary.getLongestDayLength());
+        assertTrue(SolarMath.isEvent(summary.getEarliestSunRise()));
+        assertTrue(SolarMath.isEvent(summary.getLatestSunSet()));
+
+        AnnualSummary pole = DaylightStatistics.summarize(new Station("pole", 90, 0, 0), 2016);
+        assertEquals(AnnualSummary.NOT_FOUND, pole.getEarliestSunRise());
+        assertEquals(AnnualSummary.NOT_FOUND, pole.getLatestSunSet());
+        assertEquals(366, pole.getUpAllDays() + pole.getDownAllDays());
+    }
+
+    @org.junit.Test
+    public void testLongitudeIndependent() throws Exception {
+        // days on the boundary of polar day must not depend on the longitude
+        AnnualSummary greenwich = DaylightStatistics.summarize(new Station("greenwich", 70, 0, 0), 2016);
+        AnnualSummary alaska = DaylightStatistics.summarize(new Station("alaska", 70, -150, -36000), 2016);
+
+        assertEquals(greenwich.getUpAllDays(), alaska.getUpAllDays(), 1);
+        assertEquals(greenwich.getTotalDaylight(), alaska.getTotalDaylight(), 3600);
+        assertEquals(greenwich.getShortestDayLength(), alaska.getShortestDayLength());
+        assertEquals(86400, alaska.getLongestDayLength());
+    }
+
+    @org.junit.Test
+    public void testParallel() throws Exception {
+        Station[] stations = new Station[50];
+        for (int i = 0; i < stations.length; i++) {
+            stations[i] = new Station("s" + i, -70 + i * 3, -180 + i * 7, 0);
+        }
+
+        AnnualSummary[] summaries = DaylightStatistics.summarize(stations, 2017, new ForkJoinPool(4));
+        assertEquals(stations.length, summaries.length);
+        for (int i = 0; i < stations.length; i++) {
+            AnnualSummary expected = DaylightStatistics.summarize(stations[i], 2017);
+            assertSame(stations[i], summaries[i].getStation());
+            assertEquals(expected.toString(), summaries[i].toString());
+            assertEquals(365, summaries[i].getDays());
+        }
+    }
+}
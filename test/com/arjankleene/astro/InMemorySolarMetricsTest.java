@@ -0,0 +1,80 @@
+package com.arjankleene.astro;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import static com.arjankleene.astro.SolarInfoTest.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the instrumentation of the astro engine
+ */
+public class InMemorySolarMetricsTest {
+
+    @org.junit.After
+    public void tearDown() throws Exception {
+        SolarInstrumentation.setMetrics(null);
+    }
+
+    @org.junit.Test
+    public void testDisabledByDefault() throws Exception {
+        assertSame(SolarMetrics.NONE, SolarInstrumentation.getMetrics());
+        assertEquals(0, SolarInstrumentation.start());
+    }
+
+    @org.junit.Test
+    public void testCalculations() throws Exception {
+        InMemorySolarMetrics metrics = new InMemorySolarMetrics();
+        SolarInstrumentation.setMetrics(metrics);
+
+        new SolarInfo(new GregorianCalendar(2016, Calendar.MARCH, 9), ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE);
+        new SolarInfo(new GregorianCalendar(2016, Calendar.JUNE, 21), LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE);
+        SolarInfo.computeRange(LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE, SolarMath.epochDay(2016, 12, 1), 10,
+                SolarInfo.ZENITH_OFFICIAL);
+
+        assertEquals(2, metrics.getCalculations());
+        assertEquals(1, metrics.getBulkCalculations());
+        assertEquals(10, metrics.getBulkResults());
+        assertEquals(1, metrics.getUpAllDay());
+        assertEquals(10, metrics.getDownAllDay());
+        assertEquals(2, metrics.getSingleLatency().getCount());
+        assertEquals(1, metrics.getBulkLatency().getCount());
+
+        metrics.reset();
+        assertEquals(0, metrics.getCalculations());
+        assertEquals(0, metrics.getSingleLatency().getCount());
+    }
+
+    @org.junit.Test
+    public void testCache() throws Exception {
+        InMemorySolarMetrics metrics = new InMemorySolarMetrics();
+        SolarInstrumentation.setMetrics(metrics);
+
+        SolarCache cache = new SolarCache(1, 0.01);
+        long epochDay = SolarMath.epochDay(2016, 3, 9);
+        cache.get(epochDay, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600);
+        cache.get(epochDay, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600);
+        cache.get(epochDay, BERLIN_LATITUDE, BERLIN_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600);
+
+        assertEquals(1, metrics.getCacheHits());
+        assertEquals(2, metrics.getCacheMisses());
+        assertEquals(1, metrics.getCacheEvictions());
+        assertEquals(2, metrics.getCalculations());
+    }
+
+    @org.junit.Test
+    public void testHistogram() throws Exception {
+        InMemorySolarMetrics.Histogram histogram = new InMemorySolarMetrics.Histogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1000);
+        }
+        histogram.record(1000000);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(1000000, histogram.getMaxNanos());
+        assertEquals(10990, histogram.getMeanNanos(), 1e-9);
+        assertEquals(99, histogram.getBucket(9));
+        assertEquals(1023, histogram.getPercentileNanos(50));
+        assertEquals(1000000, histogram.getPercentileNanos(100));
+    }
+}
@@ -0,0 +1,104 @@
+package com.arjankleene.astro;
+
+import java.util.Random;
+
+import static com.arjankleene.astro.SolarInfoTest.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the incremental update of sunrise and sunset
+ */
+public class IncrementalSolverTest {
+
+    private static final int UTC_OFFSET = 3600;
+
+    @org.junit.Test
+    public void testSmallMoves() throws Exception {
+        IncrementalSolver solver = new IncrementalSolver(SolarInfo.ZENITH_OFFICIAL, UTC_OFFSET, 1);
+        long day = SolarMath.epochDay(2016, 3, 10);
+
+        assertTimes(day, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, solver);
+        assertEquals(1, solver.getFullComputations());
+
+        // a few hundred meters in any direction
+        assertTimes(day, ENSCHEDE_LATITUDE + 0.003, ENSCHEDE_LONGITUDE, solver);
+        assertTimes(day, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE - 0.004, solver);
+        assertTimes(day, ENSCHEDE_LATITUDE - 0.002, ENSCHEDE_LONGITUDE + 0.003, solver);
+        assertEquals(1, solver.getFullComputations());
+        assertEquals(3, solver.getIncrementalUpdates());
+    }
+
+    @org.junit.Test
+    public void testNextDay() throws Exception {
+        IncrementalSolver solver = new IncrementalSolver(SolarInfo.ZENITH_OFFICIAL, 0, 2);
+        long day = SolarMath.epochDay(2016, 8, 1);
+
+        assertTimes(day, BERLIN_LATITUDE, BERLIN_LONGITUDE, solver);
+        assertTimes(day + 1, BERLIN_LATITUDE, BERLIN_LONGITUDE, solver);
+        assertEquals(1, solver.getIncrementalUpdates());
+    }
+
+    @org.junit.Test
+    public void testWithinErrorBound() throws Exception {
+        double[] bounds = {0.5, 2, 10};
+        Random random = new Random(42);
+        for (double bound : bounds) {
+            IncrementalSolver solver = new IncrementalSolver(SolarInfo.ZENITH_CIVIL, 43200, bound);
+            long day = SolarMath.epochDay(2016, 1, 1);
+            double latitude = AUCKLAND_LATITUDE;
+            double longitude = AUCKLAND_LONGITUDE;
+
+            for (int i = 0; i < 2000; i++) {
+                latitude += (random.nextDouble() - 0.5) * 0.02;
+                longitude += (random.nextDouble() - 0.5) * 0.02;
+                if (i % 20 == 0) day++;
+                assertTimes(day, latitude, longitude, solver);
+            }
+            assertTrue(solver.getIncrementalUpdates() > solver.getFullComputations());
+        }
+    }
+
+    @org.junit.Test
+    public void testLargeMove() throws Exception {
+        IncrementalSolver solver = new IncrementalSolver(SolarInfo.ZENITH_OFFICIAL, UTC_OFFSET, 1);
+        long day = SolarMath.epochDay(2016, 6, 1);
+
+        assertTimes(day, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, solver);
+        assertTimes(day, HONOLULU_LATITUDE, HONOLULU_LONGITUDE, solver);
+        assertEquals(2, solver.getFullComputations());
+        assertEquals(0, solver.getIncrementalUpdates());
+        assertEquals(0, solver.getLastError(), 0);
+
+        // another year starts a new solution
+        assertTimes(day + 366, HONOLULU_LATITUDE, HONOLULU_LONGITUDE, solver);
+        assertEquals(3, solver.getFullComputations());
+    }
+
+    @org.junit.Test
+    public void testPolar() throws Exception {
+        IncrementalSolver solver = new IncrementalSolver(SolarInfo.ZENITH_OFFICIAL, UTC_OFFSET, 5);
+        long day = SolarMath.epochDay(2016, 6, 21);
+
+        SolarTimes times = solver.update(day, LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE);
+        assertEquals(SolarMath.UP_ALL_DAY, times.getSunRise());
+        solver.update(day, LONGYEARBYEN_LATITUDE + 0.001, LONGYEARBYEN_LONGITUDE);
+        assertEquals(2, solver.getFullComputations());
+
+        // walk into polar day; the solution is never extended past the boundary
+        day = SolarMath.epochDay(2016, 4, 10);
+        for (int i = 0; i < 20; i++) {
+            assertTimes(day + i, LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE, solver);
+        }
+    }
+
+    private static void assertTimes(long day, double latitude, double longitude, IncrementalSolver solver) {
+        SolarTimes times = solver.update(day, latitude, longitude);
+        assertTrue(solver.getLastError() <= solver.getMaxError());
+
+        long sunRise = SolarMath.sunRise(day, latitude, longitude, solver.getZenith(), solver.getUtcOffset());
+        long sunSet = SolarMath.sunSet(day, latitude, longitude, solver.getZenith(), solver.getUtcOffset());
+        // times are truncated to whole seconds
+        assertEquals(sunRise, times.getSunRise(), solver.getMaxError() + 1);
+        assertEquals(sunSet, times.getSunSet(), solver.getMaxError() + 1);
+    }
+}
@@ -0,0 +1,150 @@
+package com.arjankleene.astro;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import static com.arjankleene.astro.SolarInfoTest.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the NOAA engine and the selection of engines
+ */
+public class NoaaCalculatorTest {
+
+    private static final double[][] LOCATIONS = {
+            {AUCKLAND_LATITUDE, AUCKLAND_LONGITUDE},
+            {BERLIN_LATITUDE, BERLIN_LONGITUDE},
+            {ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE},
+            {HONOLULU_LATITUDE, HONOLULU_LONGITUDE},
+    };
+
+    @org.junit.Test
+    public void testCloseToWilliams() throws Exception {
+        long startDay = SolarMath.epochDay(2016, 1, 1);
+        for (double[] location : LOCATIONS) {
+            for (int day = 0; day < 366; day += 5) {
+                long rise = SolarCalculator.NOAA.sunRise(startDay + day, location[0], location[1],
+                        SolarInfo.ZENITH_OFFICIAL, 0);
+                long set = SolarCalculator.NOAA.sunSet(startDay + day, location[0], location[1],
+                        SolarInfo.ZENITH_OFFICIAL, 0);
+
+                assertEquals(SolarMath.sunRise(startDay + day, location[0], location[1], SolarInfo.ZENITH_OFFICIAL, 0),
+                        rise, 120.0);
+                assertEquals(SolarMath.sunSet(startDay + day, location[0], location[1], SolarInfo.ZENITH_OFFICIAL, 0),
+                        set, 120.0);
+            }
+        }
+    }
+
+    @org.junit.Test
+    public void testReferenceTimes() throws Exception {
+        double[] noaa = errors(SolarCalculator.NOAA);
+        double[] williams = errors(SolarCalculator.WILLIAMS);
+
+        // the references are rounded to the second
+        assertEquals(0, noaa[0], 1.0);
+        assertEquals(0, noaa[1], 2.0);
+        assertTrue(noaa[0] * 10 < williams[0]);
+        assertTrue(noaa[1] < williams[1]);
+    }
+
+    /**
+     * Compare the engine with all events of reference_times.csv.
+     *
+     * @return the mean and the largest error in seconds
+     */
+    static double[] errors(SolarCalculator calculator) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                NoaaCalculatorTest.class.getResourceAsStream("reference_times.csv"), "UTF-8"));
+        try {
+            double total = 0;
+            double max = 0;
+            int count = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#")) continue;
+
+                String[] fields = line.split(",");
+                double latitude = Double.parseDouble(fields[1]);
+                double longitude = Double.parseDouble(fields[2]);
+                int utcOffset = Integer.parseInt(fields[3]);
+                long epochDay = parseDate(fields[4]);
+
+                for (int i = 0; i < 2; i++) {
+                    long event = i == 0
+                            ? calculator.sunRise(epochDay, latitude, longitude, SolarInfo.ZENITH_OFFICIAL, utcOffset)
+                            : calculator.sunSet(epochDay, latitude, longitude, SolarInfo.ZENITH_OFFICIAL, utcOffset);
+                    String reference = fields[5 + i];
+                    if (reference.equals("-")) {
+                        assertFalse(line, SolarMath.isEvent(event));
+                        continue;
+                    }
+                    assertTrue(line, SolarMath.isEvent(event));
+
+                    double error = Math.abs(event - parseTime(reference));
+                    total += error;
+                    max = Math.max(max, error);
+                    count++;
+                }
+            }
+            return new double[]{total / count, max};
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Parse a date like 2016-03-09 to days since 1970-01-01.
+     */
+    private static long parseDate(String date) {
+        return SolarMath.epochDay(Integer.parseInt(date.substring(0, 4)), Integer.parseInt(date.substring(5, 7)),
+                Integer.parseInt(date.substring(8, 10)));
+    }
+
+    /**
+     * Parse a UTC time like 2016-03-09T05:59:21Z to epoch seconds.
+     */
+    private static long parseTime(String time) {
+        return parseDate(time) * SolarMath.SECONDS_PER_DAY + Integer.parseInt(time.substring(11, 13)) * 3600
+                + Integer.parseInt(time.substring(14, 16)) * 60 + Integer.parseInt(time.substring(17, 19));
+    }
+
+    @org.junit.Test
+    public void testFillRange() throws Exception {
+        long startDay = SolarMath.epochDay(2016, 10, 1);
+        SolarRange range = new SolarRange(startDay, 120);
+        SolarInfo.computeRange(LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600,
+                range, SolarCalculator.NOAA);
+
+        boolean polarNight = false;
+        for (int day = 0; day < range.getDays(); day++) {
+            assertEquals(SolarCalculator.NOAA.sunRise(startDay + day, LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE,
+                    SolarInfo.ZENITH_OFFICIAL, 3600), range.getSunRises()[day]);
+            assertEquals(SolarCalculator.NOAA.sunSet(startDay + day, LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE,
+                    SolarInfo.ZENITH_OFFICIAL, 3600), range.getSunSets()[day]);
+            polarNight |= range.getStates()[day] == SolarMath.STATE_DOWN_ALL_DAY;
+        }
+        assertTrue(polarNight);
+    }
+
+    @org.junit.Test
+    public void testSolarInfo() throws Exception {
+        TimeZone amsterdam = TimeZone.getTimeZone("Europe/Amsterdam");
+        GregorianCalendar date = new GregorianCalendar(amsterdam);
+        date.clear();
+        date.set(2016, Calendar.MARCH, 9);
+        SolarInfo info = new SolarInfo(date, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL,
+                SolarCalculator.NOAA);
+
+        // 06:59:21 with williams
+        GregorianCalendar williams = new GregorianCalendar(amsterdam);
+        williams.clear();
+        williams.set(2016, Calendar.MARCH, 9, 6, 59, 21);
+        assertEquals(williams.getTimeInMillis(), info.getSunRise().getTimeInMillis(), 60000.0);
+        assertEquals("noaa", SolarCalculator.NOAA.getName());
+    }
+}
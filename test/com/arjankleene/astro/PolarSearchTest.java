@@ -0,0 +1,80 @@
+package com.arjankleene.astro;
+
+import static com.arjankleene.astro.SolarInfoTest.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the search of polar boundaries and next events
+ */
+public class PolarSearchTest {
+
+    private static final int UTC_OFFSET = 3600;
+
+    @org.junit.Test
+    public void testPolarBoundaries() throws Exception {
+        PolarSearch search = new PolarSearch(LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE,
+                SolarInfo.ZENITH_OFFICIAL, UTC_OFFSET);
+        long start = SolarMath.epochDay(2016, 1, 1);
+
+        long polarDay = search.findPolarStart(start, SolarMath.STATE_UP_ALL_DAY);
+        long polarNight = search.findPolarStart(start, SolarMath.STATE_DOWN_ALL_DAY);
+
+        assertEquals(start, polarNight);
+        assertEquals(scan(start, SolarMath.STATE_UP_ALL_DAY, true), polarDay);
+        assertEquals(scan(polarDay, SolarMath.STATE_UP_ALL_DAY, false), search.findPolarEnd(polarDay));
+        assertEquals(scan(start, SolarMath.STATE_DOWN_ALL_DAY, false), search.findPolarEnd(polarNight));
+
+        long nextNight = search.findPolarStart(search.findPolarEnd(polarDay), SolarMath.STATE_DOWN_ALL_DAY);
+        assertEquals(scan(search.findPolarEnd(polarDay), SolarMath.STATE_DOWN_ALL_DAY, true), nextNight);
+
+        // polar day from around April 19 to August 23
+        assertEquals(SolarMath.epochDay(2016, 4, 19), polarDay, 2);
+        assertEquals(SolarMath.epochDay(2016, 8, 24), search.findPolarEnd(polarDay), 2);
+    }
+
+    @org.junit.Test
+    public void testNextEventAfterPolarNight() throws Exception {
+        PolarSearch search = new PolarSearch(LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE,
+                SolarInfo.ZENITH_OFFICIAL, UTC_OFFSET);
+        long time = SolarMath.epochDay(2016, 12, 1) * SolarMath.SECONDS_PER_DAY;
+
+        long day = SolarMath.epochDay(2016, 12, 1);
+        long expected;
+        while (!SolarMath.isEvent(expected = SolarMath.sunRise(day, LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE,
+                SolarInfo.ZENITH_OFFICIAL, UTC_OFFSET))) {
+            day++;
+        }
+
+        assertEquals(expected, search.nextSunRise(time));
+        assertTrue("Calculations: " + search.getCalculations(), search.getCalculations() < 20);
+    }
+
+    @org.junit.Test
+    public void testNextEventOnNormalDay() throws Exception {
+        PolarSearch search = new PolarSearch(ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600);
+        long day = SolarMath.epochDay(2016, 3, 9);
+        long sunrise = SolarMath.sunRise(day, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600);
+        long sunset = SolarMath.sunSet(day, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600);
+        long tomorrow = SolarMath.sunRise(day + 1, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE,
+                SolarInfo.ZENITH_OFFICIAL, 3600);
+
+        assertEquals(sunrise, search.nextSunRise(sunrise - 1));
+        assertEquals(tomorrow, search.nextSunRise(sunrise));
+        assertEquals(sunset, search.nextSunSet(sunrise));
+        assertEquals(SolarMath.STATE_NORMAL, search.getState(day));
+        assertEquals(day, search.findPolarEnd(day));
+        assertEquals(PolarSearch.NOT_FOUND, search.findPolarStart(day, SolarMath.STATE_UP_ALL_DAY));
+    }
+
+    /**
+     * Find the first day with or without the state of the sunset by calculating every day.
+     */
+    private static long scan(long from, byte state, boolean matches) {
+        long day = from;
+        while ((SolarMath.state(SolarMath.sunSet(day, LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE,
+                SolarInfo.ZENITH_OFFICIAL, UTC_OFFSET)) == state) != matches) {
+            day++;
+        }
+        return day;
+    }
+}
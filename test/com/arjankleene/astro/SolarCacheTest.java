@@ -0,0 +1,61 @@
+package com.arjankleene.astro;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import static com.arjankleene.astro.SolarInfoTest.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the LRU cache of solar results
+ */
+public class SolarCacheTest {
+
+    @org.junit.Test
+    public void testHitsAndMisses() throws Exception {
+        SolarCache cache = new SolarCache(10, 0.01);
+        long epochDay = SolarMath.epochDay(2016, 3, 9);
+
+        SolarTimes first = cache.get(epochDay, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600);
+        SolarTimes second = cache.get(epochDay, ENSCHEDE_LATITUDE + 0.002, ENSCHEDE_LONGITUDE + 0.001,
+                SolarInfo.ZENITH_OFFICIAL, 3600);
+        SolarTimes civil = cache.get(epochDay, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_CIVIL, 3600);
+
+        assertSame(first, second);
+        assertNotEquals(first, civil);
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.size());
+    }
+
+    @org.junit.Test
+    public void testAccuracy() throws Exception {
+        SolarCache cache = new SolarCache(10, 0.01);
+        GregorianCalendar date = new GregorianCalendar(2016, Calendar.MARCH, 9);
+
+        SolarTimes times = cache.get(date, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL);
+        SolarInfo info = new SolarInfo(date, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE);
+
+        assertEquals(info.getSunRise().getTimeInMillis() / 1000, times.getSunRise(), 60.0);
+        assertEquals(info.getSunSet().getTimeInMillis() / 1000, times.getSunSet(), 60.0);
+    }
+
+    @org.junit.Test
+    public void testLruEviction() throws Exception {
+        SolarCache cache = new SolarCache(2, 0.01);
+
+        cache.get(1, 10, 10, SolarInfo.ZENITH_OFFICIAL, 0);
+        cache.get(2, 10, 10, SolarInfo.ZENITH_OFFICIAL, 0);
+        cache.get(1, 10, 10, SolarInfo.ZENITH_OFFICIAL, 0);
+        cache.get(3, 10, 10, SolarInfo.ZENITH_OFFICIAL, 0);
+
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.size());
+
+        // day 1 was used more recently than day 2, so day 2 was evicted
+        cache.get(1, 10, 10, SolarInfo.ZENITH_OFFICIAL, 0);
+        assertEquals(2, cache.getHits());
+        cache.get(2, 10, 10, SolarInfo.ZENITH_OFFICIAL, 0);
+        assertEquals(4, cache.getMisses());
+    }
+}
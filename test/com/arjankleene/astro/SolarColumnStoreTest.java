@@ -0,0 +1,98 @@
+package com.arjankleene.astro;
+
+import static com.arjankleene.astro.SolarInfoTest.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the off-heap column store
+ */
+public class SolarColumnStoreTest {
+
+    @org.junit.Test
+    public void testFillMatchesCalculations() throws Exception {
+        long startDay = SolarMath.epochDay(2016, 1, 1);
+        Station[] stations = {
+                new Station("enschede", ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, 3600),
+                new Station("honolulu", HONOLULU_LATITUDE, HONOLULU_LONGITUDE, -36000),
+                new Station("auckland", AUCKLAND_LATITUDE, AUCKLAND_LONGITUDE, 43200),
+                new Station("longyearbyen", LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE, 3600)
+        };
+        SolarColumnStore store = new SolarColumnStore(stations.length, startDay, 731, SolarThresholds.getDefaultZeniths());
+        store.fill(stations, SolarCalculator.WILLIAMS);
+
+        assertEquals(4L * 731 * 4 * 8 + 16, store.getCapacity());
+        for (int site = 0; site < stations.length; site++) {
+            Station station = stations[site];
+            assertEquals(station.getUtcOffset(), store.getUtcOffset(site));
+            for (int zenith = 0; zenith < store.getZenithCount(); zenith++) {
+                for (int day = 0; day < store.getDays(); day += 13) {
+                    assertEquals(SolarMath.sunRise(startDay + day, station.getLatitude(), station.getLongitude(),
+                            store.getZenith(zenith), station.getUtcOffset()), store.getSunRise(site, day, zenith));
+                    assertEquals(SolarMath.sunSet(startDay + day, station.getLatitude(), station.getLongitude(),
+                            store.getZenith(zenith), station.getUtcOffset()), store.getSunSet(site, day, zenith));
+                }
+            }
+        }
+    }
+
+    @org.junit.Test
+    public void testBulkAccess() throws Exception {
+        long startDay = SolarMath.epochDay(2016, 1, 1);
+        SolarColumnStore store = new SolarColumnStore(3, startDay, 366, SolarInfo.ZENITH_OFFICIAL);
+        store.fill(1, LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE, 3600);
+
+        long[] sunRises = new long[366];
+        long[] sunSets = new long[366];
+        byte[] states = new byte[366];
+        long[] expectedRises = new long[366];
+        long[] expectedSets = new long[366];
+        SolarMath.fillRange(LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE, startDay, 366, SolarInfo.ZENITH_OFFICIAL,
+                3600, expectedRises, expectedSets, states);
+
+        store.getSunRises(1, 0, sunRises);
+        store.getSunSets(1, 0, sunSets);
+        assertArrayEquals(expectedRises, sunRises);
+        assertArrayEquals(expectedSets, sunSets);
+
+        // polar night in January, polar day in June
+        assertEquals(SolarColumnStore.DOWN_ALL_DAY, store.getSunSetOffset(1, 10, 0));
+        assertEquals(SolarColumnStore.UP_ALL_DAY, store.getSunSetOffset(1, 170, 0));
+    }
+
+    @org.junit.Test(expected = IllegalStateException.class)
+    public void testNotFilled() throws Exception {
+        SolarColumnStore store = new SolarColumnStore(3, 0, 10, SolarInfo.ZENITH_OFFICIAL);
+        store.fill(1, LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE, 3600);
+        // not mistaken for polar night
+        store.getSunRiseOffset(2, 5, 0);
+    }
+
+    @org.junit.Test(expected = IllegalStateException.class)
+    public void testNotFilledBulk() throws Exception {
+        SolarColumnStore store = new SolarColumnStore(3, 0, 10, SolarInfo.ZENITH_OFFICIAL);
+        store.fill(1, LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE, 3600);
+        store.getSunSets(0, 0, new long[10]);
+    }
+
+    @org.junit.Test
+    public void testOffsets() throws Exception {
+        long startDay = SolarMath.epochDay(2016, 3, 9);
+        SolarColumnStore store = new SolarColumnStore(1, startDay, 1, SolarInfo.ZENITH_OFFICIAL);
+        store.fill(0, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, 3600);
+
+        // 06:59:21 and 18:27:25 local time
+        assertEquals(6 * 3600 + 59 * 60 + 21, store.getSunRiseOffset(0, 0, 0));
+        assertEquals(18 * 3600 + 27 * 60 + 25, store.getSunSetOffset(0, 0, 0));
+    }
+
+    @org.junit.Test(expected = IndexOutOfBoundsException.class)
+    public void testDayOutOfRange() throws Exception {
+        SolarColumnStore store = new SolarColumnStore(2, 0, 10, SolarInfo.ZENITH_OFFICIAL);
+        store.getSunRise(1, 10, 0);
+    }
+
+    @org.junit.Test(expected = IllegalArgumentException.class)
+    public void testTooLarge() throws Exception {
+        new SolarColumnStore(100000, 0, 36500, SolarInfo.ZENITH_OFFICIAL);
+    }
+}
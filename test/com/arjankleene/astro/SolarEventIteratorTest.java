@@ -0,0 +1,97 @@
+package com.arjankleene.astro;
+
+import static com.arjankleene.astro.SolarInfoTest.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the lazy iteration over solar events
+ */
+public class SolarEventIteratorTest {
+
+    @org.junit.Test
+    public void testFirstEvents() throws Exception {
+        long epochDay = SolarMath.epochDay(2016, 3, 9);
+        long from = epochDay * 86400 - 3600;
+        SolarEventIterator events = new SolarEventIterator(ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, 3600, from);
+        SolarThresholds thresholds = SolarInfo.computeThresholds(epochDay, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, 3600);
+
+        for (int i = SolarThresholds.ASTRONOMICAL; i >= SolarThresholds.OFFICIAL; i--) {
+            SolarEvent event = events.next();
+            assertTrue(event.isRising());
+            assertEquals(SolarThresholds.getDefaultZeniths()[i], event.getZenith(), 0);
+            assertEquals(thresholds.getSunRise(i), event.getTime());
+        }
+        for (int i = SolarThresholds.OFFICIAL; i <= SolarThresholds.ASTRONOMICAL; i++) {
+            SolarEvent event = events.next();
+            assertFalse(event.isRising());
+            assertEquals(SolarThresholds.getDefaultZeniths()[i], event.getZenith(), 0);
+            assertEquals(thresholds.getSunSet(i), event.getTime());
+        }
+    }
+
+    @org.junit.Test
+    public void testSkipsEarlierEvents() throws Exception {
+        long epochDay = SolarMath.epochDay(2016, 3, 9);
+        long sunset = SolarMath.sunSet(epochDay, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600);
+
+        SolarEventIterator events = new SolarEventIterator(ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, 3600, sunset,
+                SolarInfo.ZENITH_OFFICIAL);
+
+        assertEquals(new SolarEvent(sunset, SolarInfo.ZENITH_OFFICIAL, false), events.next());
+        SolarEvent sunrise = events.next();
+        assertTrue(sunrise.isRising());
+        assertEquals(SolarMath.sunRise(epochDay + 1, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE,
+                SolarInfo.ZENITH_OFFICIAL, 3600), sunrise.getTime());
+    }
+
+    @org.junit.Test
+    public void testChronologicalOrder() throws Exception {
+        assertChronological(AUCKLAND_LATITUDE, AUCKLAND_LONGITUDE, 43200);
+        // events of the largest zeniths wrap around midnight in summer
+        assertChronological(ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, 3600);
+        assertChronological(64.1466, -21.9426, 0);
+        assertChronological(LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE, 3600);
+    }
+
+    private static void assertChronological(double latitude, double longitude, int utcOffset) {
+        long from = SolarMath.epochDay(2016, 1, 1) * 86400;
+        SolarEventIterator events = new SolarEventIterator(latitude, longitude, utcOffset, from);
+
+        long previous = from;
+        for (int i = 0; i < 366 * 8; i++) {
+            SolarEvent event = events.next();
+            assertTrue(event + " before " + previous, event.getTime() >= previous);
+            previous = event.getTime();
+        }
+    }
+
+    @org.junit.Test
+    public void testPolarNight() throws Exception {
+        long from = SolarMath.epochDay(2016, 11, 1) * 86400;
+        SolarEventIterator events = new SolarEventIterator(LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE, 3600, from,
+                SolarInfo.ZENITH_OFFICIAL);
+
+        SolarEvent event = events.next();
+        long epochDay = SolarMath.floorDiv(event.getTime() + 3600, 86400);
+        long expected = event.isRising()
+                ? SolarMath.sunRise(epochDay, LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600)
+                : SolarMath.sunSet(epochDay, LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600);
+
+        assertEquals(2017, SolarMath.year(epochDay));
+        assertEquals(expected, event.getTime());
+        assertEquals(SolarMath.DOWN_ALL_DAY, SolarMath.sunRise(epochDay - 1, LONGYEARBYEN_LATITUDE,
+                LONGYEARBYEN_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600));
+        assertEquals(SolarMath.DOWN_ALL_DAY, SolarMath.sunSet(epochDay - 1, LONGYEARBYEN_LATITUDE,
+                LONGYEARBYEN_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600));
+
+        // the polar night of over two months is searched, not scanned
+        assertTrue(events.getCalculations() < 40);
+    }
+
+    @org.junit.Test
+    public void testNoEvents() throws Exception {
+        SolarEventIterator events = new SolarEventIterator(90, 0, 0, 0, SolarInfo.ZENITH_OFFICIAL);
+
+        assertFalse(events.hasNext());
+    }
+}
@@ -227,4 +227,74 @@ public class SolarInfoTest {
         assertTrue(info.isUpAllDay());
         assertFalse(info.isDownAllDay());
     }
-}
\ No newline at end of file
+
+    @org.junit.Test
+    public void testComputeRange() throws Exception {
+        long startDay = SolarMath.epochDay(2015, 12, 1);
+        SolarRange range = SolarInfo.computeRange(ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, startDay, 400,
+                SolarInfo.ZENITH_OFFICIAL, 3600);
+
+        // the range is in the standard time of Amsterdam
+        GregorianCalendar date = new GregorianCalendar(TimeZone.getTimeZone("Europe/Amsterdam"));
+        date.clear();
+        date.set(2015, Calendar.DECEMBER, 1);
+        for (int i = 0; i < range.getDays(); i++) {
+            SolarInfo info = new SolarInfo(date, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE);
+
+            assertEquals(info.getSunRise().getTimeInMillis(), range.getSunRises()[i] * 1000);
+            assertEquals(info.getSunSet().getTimeInMillis(), range.getSunSets()[i] * 1000);
+            assertEquals(SolarMath.STATE_NORMAL, range.getStates()[i]);
+
+            date.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+
+    @org.junit.Test
+    public void testComputeRangePolar() throws Exception {
+        SolarRange range = SolarInfo.computeRange(LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE,
+                SolarMath.epochDay(2016, 1, 1), 366, SolarInfo.ZENITH_OFFICIAL);
+
+        assertEquals(SolarMath.STATE_DOWN_ALL_DAY, range.getStates()[31]);
+        assertEquals(SolarMath.DOWN_ALL_DAY, range.getSunRises()[31]);
+        assertEquals(SolarMath.STATE_UP_ALL_DAY, range.getStates()[182]);
+        assertEquals(SolarMath.UP_ALL_DAY, range.getSunSets()[182]);
+    }
+
+    @org.junit.Test
+    public void testComputeThresholds() throws Exception {
+        long epochDay = SolarMath.epochDay(2016, 3, 9);
+        SolarThresholds thresholds = SolarInfo.computeThresholds(epochDay, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, 3600);
+
+        GregorianCalendar date = new GregorianCalendar(TimeZone.getTimeZone("Europe/Amsterdam"));
+        date.clear();
+        date.set(2016, Calendar.MARCH, 9);
+
+        assertEquals(4, thresholds.size());
+        for (int i = 0; i < thresholds.size(); i++) {
+            double zenith = SolarThresholds.getDefaultZeniths()[i];
+            SolarInfo info = new SolarInfo(date, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, zenith);
+
+            assertEquals(i, thresholds.indexOf(zenith));
+            assertEquals(info.getSunRise().getTimeInMillis(), thresholds.getSunRise(i) * 1000);
+            assertEquals(info.getSunSet().getTimeInMillis(), thresholds.getSunSet(i) * 1000);
+        }
+        assertTrue(thresholds.getSunRise(SolarThresholds.ASTRONOMICAL) < thresholds.getSunRise(SolarThresholds.OFFICIAL));
+
+        // changing the default zeniths of a caller does not change them for others
+        SolarThresholds.getDefaultZeniths()[SolarThresholds.OFFICIAL] = 60;
+        assertEquals(SolarInfo.ZENITH_OFFICIAL, SolarThresholds.getDefaultZeniths()[SolarThresholds.OFFICIAL], 0);
+    }
+
+    @org.junit.Test
+    public void testComputeThresholdsPolar() throws Exception {
+        long epochDay = SolarMath.epochDay(2016, 7, 1);
+        SolarThresholds thresholds = SolarInfo.computeThresholds(epochDay, LONGYEARBYEN_LATITUDE,
+                LONGYEARBYEN_LONGITUDE, 3600, SolarInfo.ZENITH_OFFICIAL, 75);
+
+        assertTrue(thresholds.isUpAllDay(0));
+        assertFalse(thresholds.isDownAllDay(0));
+        assertFalse(thresholds.isUpAllDay(1));
+        assertTrue(SolarMath.isEvent(thresholds.getSunRise(1)));
+        assertEquals(-1, thresholds.indexOf(SolarInfo.ZENITH_CIVIL));
+    }
+}
@@ -0,0 +1,70 @@
+package com.arjankleene.astro;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import static com.arjankleene.astro.SolarInfoTest.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the primitive calculation kernel behind SolarInfo
+ */
+public class SolarMathTest {
+
+    @org.junit.Test
+    public void testEpochDay() throws Exception {
+        assertEquals(0, SolarMath.epochDay(1970, 1, 1));
+        assertEquals(16869, SolarMath.epochDay(2016, 3, 9));
+        assertEquals(-1, SolarMath.epochDay(1969, 12, 31));
+        assertEquals(11016, SolarMath.epochDay(2000, 2, 29));
+    }
+
+    @org.junit.Test
+    public void testDayOfYear() throws Exception {
+        GregorianCalendar date = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        date.clear();
+        date.set(1899, Calendar.JANUARY, 1);
+
+        for (int i = 0; i < 200 * 366; i++) {
+            long epochDay = SolarMath.floorDiv(date.getTimeInMillis(), 86400000L);
+
+            assertEquals(date.get(Calendar.YEAR), SolarMath.year(epochDay));
+            assertEquals(date.get(Calendar.DAY_OF_YEAR), SolarMath.dayOfYear(epochDay));
+            assertEquals(date.get(Calendar.MONTH) + 1, SolarMath.month(epochDay));
+            assertEquals(date.get(Calendar.DAY_OF_MONTH), SolarMath.dayOfMonth(epochDay));
+
+            date.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+
+    @org.junit.Test
+    public void testSunRiseAndSet() throws Exception {
+        long epochDay = SolarMath.epochDay(2016, 3, 9);
+
+        long sunrise = SolarMath.sunRise(epochDay, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600);
+        long sunset = SolarMath.sunSet(epochDay, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600);
+
+        // 06:59:21 and 18:27:25 CET
+        assertEquals(epochDay * 86400 + 5 * 3600 + 59 * 60 + 21, sunrise);
+        assertEquals(epochDay * 86400 + 17 * 3600 + 27 * 60 + 25, sunset);
+        assertEquals(SolarMath.STATE_NORMAL, SolarMath.state(sunrise));
+        assertEquals(SolarMath.STATE_NORMAL, SolarMath.state(sunset));
+    }
+
+    @org.junit.Test
+    public void testPolarStates() throws Exception {
+        long night = SolarMath.epochDay(2016, 2, 1);
+        long day = SolarMath.epochDay(2016, 7, 1);
+
+        long sunrise = SolarMath.sunRise(night, LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600);
+        long sunset = SolarMath.sunSet(day, LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600);
+
+        assertEquals(SolarMath.DOWN_ALL_DAY, sunrise);
+        assertEquals(SolarMath.STATE_DOWN_ALL_DAY, SolarMath.state(sunrise));
+        assertEquals(SolarMath.UP_ALL_DAY, sunset);
+        assertEquals(SolarMath.STATE_UP_ALL_DAY, SolarMath.state(sunset));
+        assertFalse(SolarMath.isEvent(sunrise));
+        assertFalse(SolarMath.isEvent(sunset));
+    }
+}
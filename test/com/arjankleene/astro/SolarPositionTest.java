@@ -0,0 +1,64 @@
+package com.arjankleene.astro;
+
+import static com.arjankleene.astro.SolarInfoTest.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the continuous position of the sun
+ */
+public class SolarPositionTest {
+
+    @org.junit.Test
+    public void testElevationAtSunRiseAndSet() throws Exception {
+        SolarPosition position = new SolarPosition(ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE);
+        long startDay = SolarMath.epochDay(2016, 1, 1);
+
+        for (long day = startDay; day < startDay + 366; day += 5) {
+            long sunrise = SolarMath.sunRise(day, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600);
+            position.update(sunrise * 1000);
+            assertEquals(90 - SolarInfo.ZENITH_OFFICIAL, position.getElevation(), 0.1);
+            assertTrue(position.getAzimuth() > 30 && position.getAzimuth() < 150);
+
+            long sunset = SolarMath.sunSet(day, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_CIVIL, 3600);
+            position.update(sunset * 1000);
+            assertEquals(90 - SolarInfo.ZENITH_CIVIL, position.getElevation(), 0.1);
+            assertTrue(position.getAzimuth() > 210 && position.getAzimuth() < 330);
+        }
+    }
+
+    @org.junit.Test
+    public void testNoon() throws Exception {
+        // 2016-06-21, around local noon in Honolulu (UTC-10:31 mean time)
+        long noon = (SolarMath.epochDay(2016, 6, 21) * 86400 + 22 * 3600 + 31 * 60) * 1000;
+        SolarPosition position = new SolarPosition(HONOLULU_LATITUDE, HONOLULU_LONGITUDE);
+        position.update(noon);
+
+        // the sun is north of Honolulu at noon in June: 90 - (21.3 - 23.4) degrees
+        assertEquals(87.9, position.getElevation(), 0.5);
+        assertTrue(position.getAzimuth() < 45 || position.getAzimuth() > 315);
+
+        // and low in the north at noon in Auckland (UTC+11:39 mean time): 90 - 36.85 - 23.44 degrees
+        position = new SolarPosition(AUCKLAND_LATITUDE, AUCKLAND_LONGITUDE);
+        position.update((SolarMath.epochDay(2016, 6, 21) * 86400 + 21 * 60) * 1000);
+        assertEquals(90 - 36.85 - 23.44, position.getElevation(), 0.5);
+        assertEquals(0, Math.min(position.getAzimuth(), 360 - position.getAzimuth()), 5);
+    }
+
+    @org.junit.Test
+    public void testFill() throws Exception {
+        long start = SolarMath.epochDay(2016, 12, 31) * 86400000L;
+        long step = 60000;
+        double[] elevations = new double[2 * 24 * 60];
+        double[] azimuths = new double[elevations.length];
+
+        SolarPosition position = new SolarPosition(BERLIN_LATITUDE, BERLIN_LONGITUDE);
+        position.fill(start, step, elevations, azimuths);
+
+        SolarPosition single = new SolarPosition(BERLIN_LATITUDE, BERLIN_LONGITUDE);
+        for (int i = 0; i < elevations.length; i += 17) {
+            single.update(start + i * step);
+            assertEquals(single.getElevation(), elevations[i], 0);
+            assertEquals(single.getAzimuth(), azimuths[i], 0);
+        }
+    }
+}
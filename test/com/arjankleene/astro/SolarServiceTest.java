@@ -0,0 +1,147 @@
+package com.arjankleene.astro;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.arjankleene.astro.SolarInfoTest.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the concurrent calculator service and the immutable results
+ */
+public class SolarServiceTest {
+
+    @org.junit.Test
+    public void testCoalescing() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        SolarCalculator blocking = new BlockingCalculator(release);
+
+        SolarService service = new SolarService(new ForkJoinPool(4), blocking);
+        long epochDay = SolarMath.epochDay(2016, 3, 9);
+        try {
+            List<ForkJoinTask<SolarTimes>> tasks = new ArrayList<ForkJoinTask<SolarTimes>>();
+            for (int i = 0; i < 10; i++) {
+                tasks.add(service.submit(epochDay, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL,
+                        3600));
+            }
+            ForkJoinTask<SolarTimes> other = service.submit(epochDay, BERLIN_LATITUDE, BERLIN_LONGITUDE,
+                    SolarInfo.ZENITH_OFFICIAL, 3600);
+            release.countDown();
+
+            SolarTimes expected = new SolarTimes(
+                    SolarMath.sunRise(epochDay, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600),
+                    SolarMath.sunSet(epochDay, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, SolarInfo.ZENITH_OFFICIAL, 3600));
+            for (ForkJoinTask<SolarTimes> task : tasks) {
+                assertEquals(expected, task.get(10, TimeUnit.SECONDS));
+            }
+            assertNotEquals(expected, other.get(10, TimeUnit.SECONDS));
+
+            assertEquals(2, service.getCalculations());
+            assertEquals(9, service.getCoalesced());
+
+            // completed calculations are not kept
+            assertEquals(expected, service.get(epochDay, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE,
+                    SolarInfo.ZENITH_OFFICIAL, 3600));
+            assertEquals(3, service.getCalculations());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @org.junit.Test
+    public void testConcurrentRequests() throws Exception {
+        final SolarService service = new SolarService();
+        final long epochDay = SolarMath.epochDay(2016, 1, 1);
+        try {
+            List<ForkJoinTask<SolarTimes>> tasks = new ArrayList<ForkJoinTask<SolarTimes>>();
+            for (int i = 0; i < 1000; i++) {
+                tasks.add(service.submit(epochDay + i % 100, AUCKLAND_LATITUDE, AUCKLAND_LONGITUDE,
+                        SolarInfo.ZENITH_OFFICIAL, 43200));
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                assertEquals(SolarMath.sunSet(epochDay + i % 100, AUCKLAND_LATITUDE, AUCKLAND_LONGITUDE,
+                        SolarInfo.ZENITH_OFFICIAL, 43200), tasks.get(i).get().getSunSet());
+            }
+            assertEquals(1000, service.getCalculations() + service.getCoalesced());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @org.junit.Test
+    public void testRejectedAfterShutdown() throws Exception {
+        SolarService service = new SolarService(new ForkJoinPool(1), SolarCalculator.WILLIAMS);
+        service.shutdown();
+
+        // a rejected request is not left in flight, so the same request is rejected again
+        for (int i = 0; i < 2; i++) {
+            try {
+                service.submit(SolarMath.epochDay(2016, 3, 9), ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE,
+                        SolarInfo.ZENITH_OFFICIAL, 3600);
+                fail("Expected the request to be rejected");
+            } catch (RejectedExecutionException e) {
+                // expected
+            }
+        }
+        assertEquals(0, service.getCoalesced());
+    }
+
+    @org.junit.Test
+    public void testSolarInfoCopies() throws Exception {
+        GregorianCalendar date = new GregorianCalendar(2016, Calendar.MARCH, 9);
+        SolarInfo info = new SolarInfo(date, ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE);
+        GregorianCalendar expected = info.getSunRise();
+
+        // changing the date afterwards does not change the results
+        date.setTimeZone(TimeZone.getTimeZone("Pacific/Honolulu"));
+        assertEquals(expected, info.getSunRise());
+
+        GregorianCalendar sunrise = info.getSunRise();
+        sunrise.add(Calendar.HOUR_OF_DAY, 1);
+
+        assertNotEquals(sunrise, info.getSunRise());
+        assertEquals(info.getSunRise().getTimeInMillis() / 1000, info.getTimes().getSunRise());
+    }
+
+    private static class BlockingCalculator implements SolarCalculator {
+        private final CountDownLatch release;
+
+        BlockingCalculator(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public String getName() {
+            return "blocking";
+        }
+
+        @Override
+        public long sunRise(long epochDay, double latitude, double longitude, double zenith, int utcOffset) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return SolarMath.sunRise(epochDay, latitude, longitude, zenith, utcOffset);
+        }
+
+        @Override
+        public long sunSet(long epochDay, double latitude, double longitude, double zenith, int utcOffset) {
+            return SolarMath.sunSet(epochDay, latitude, longitude, zenith, utcOffset);
+        }
+
+        @Override
+        public void fillRange(double latitude, double longitude, long startDay, int days, double zenith,
+                              int utcOffset, long[] sunrises, long[] sunsets, byte[] states) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
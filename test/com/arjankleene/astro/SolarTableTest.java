@@ -0,0 +1,64 @@
+package com.arjankleene.astro;
+
+import static com.arjankleene.astro.SolarInfoTest.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the table-driven engine, compared to the calculated values
+ *
+ * The SolarInfoTest values are accurate to about a minute; the tables should not add more
+ * than a few seconds to that.
+ */
+public class SolarTableTest {
+
+    private static final double TOLERANCE = 2;
+
+    @org.junit.Test
+    public void testMatchesSolarMath() throws Exception {
+        double[][] locations = {
+                {AUCKLAND_LATITUDE, AUCKLAND_LONGITUDE},
+                {BERLIN_LATITUDE, BERLIN_LONGITUDE},
+                {ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE},
+                {HONOLULU_LATITUDE, HONOLULU_LONGITUDE},
+                {LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE},
+                {0, 179.9},
+                {-45, -179.9}
+        };
+
+        long startDay = SolarMath.epochDay(2015, 12, 25);
+        for (double[] location : locations) {
+            for (long day = startDay; day < startDay + 380; day++) {
+                for (double zenith : SolarThresholds.getDefaultZeniths()) {
+                    assertEvent(SolarMath.sunRise(day, location[0], location[1], zenith, 0),
+                            SolarTable.sunRise(day, location[0], location[1], zenith, 0));
+                    assertEvent(SolarMath.sunSet(day, location[0], location[1], zenith, 0),
+                            SolarTable.sunSet(day, location[0], location[1], zenith, 0));
+                }
+            }
+        }
+    }
+
+    @org.junit.Test
+    public void testFillRange() throws Exception {
+        long startDay = SolarMath.epochDay(2016, 1, 1);
+        SolarRange exact = SolarInfo.computeRange(ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, startDay, 366,
+                SolarInfo.ZENITH_OFFICIAL, 3600);
+        SolarRange table = new SolarRange(startDay, 366);
+        SolarTable.fillRange(ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, startDay, 366, SolarInfo.ZENITH_OFFICIAL, 3600,
+                table.getSunRises(), table.getSunSets(), table.getStates());
+
+        for (int i = 0; i < 366; i++) {
+            assertEvent(exact.getSunRises()[i], table.getSunRises()[i]);
+            assertEvent(exact.getSunSets()[i], table.getSunSets()[i]);
+            assertEquals(exact.getStates()[i], table.getStates()[i]);
+        }
+    }
+
+    private static void assertEvent(long expected, long actual) {
+        if (SolarMath.isEvent(expected) && SolarMath.isEvent(actual)) {
+            assertEquals(expected, actual, TOLERANCE);
+        } else {
+            assertEquals(expected, actual);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.arjankleene.astro;
+
+import static com.arjankleene.astro.SolarInfoTest.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the nearest station lookup
+ */
+public class StationIndexTest {
+
+    private static final long START_DAY = SolarMath.epochDay(2016, 1, 1);
+
+    @org.junit.Test
+    public void testNearestStation() throws Exception {
+        StationIndex index = new StationIndex(new SolarColumnStore(100, START_DAY, 366, SolarInfo.ZENITH_OFFICIAL),
+                SolarCalculator.WILLIAMS, 5);
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 10; j++) {
+                index.add(new Station("nl" + i + j, 51.8 + i * 0.1, 6.4 + j * 0.1, 3600));
+            }
+        }
+
+        assertEquals(-1, index.add(new Station("full", 52, 7, 3600)));
+        assertEquals("nl45", index.getStation(index.findNearest(ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, 3600)).getId());
+        assertEquals(-1, index.findNearest(ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, 7200));
+
+        long day = SolarMath.epochDay(2016, 3, 9);
+        SolarTimes times = index.query(day, 52.2005, 6.8891, 3600, 0, false);
+        assertEquals(1, index.getHits());
+
+        // the station is 55 meters away in latitude, which is a few seconds
+        assertEquals(SolarMath.sunRise(day, 52.2005, 6.8891, SolarInfo.ZENITH_OFFICIAL, 3600), times.getSunRise(), 3);
+        assertEquals(SolarMath.sunSet(day, 52.2005, 6.8891, SolarInfo.ZENITH_OFFICIAL, 3600), times.getSunSet(), 3);
+
+        // the longitude shift alone is exact within a second
+        times = index.query(day, 52.2, 6.8371, 3600, 0, false);
+        assertEquals(SolarMath.sunRise(day, 52.2, 6.8371, SolarInfo.ZENITH_OFFICIAL, 3600), times.getSunRise(), 1);
+        assertEquals(SolarMath.sunSet(day, 52.2, 6.8371, SolarInfo.ZENITH_OFFICIAL, 3600), times.getSunSet(), 1);
+        assertEquals(2, index.getHits());
+    }
+
+    @org.junit.Test
+    public void testFallThroughAndInsert() throws Exception {
+        StationIndex index = new StationIndex(new SolarColumnStore(2, START_DAY, 366, SolarInfo.ZENITH_CIVIL),
+                SolarCalculator.WILLIAMS, 5);
+        index.add(new Station("enschede", ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, 3600));
+
+        long day = SolarMath.epochDay(2016, 6, 1);
+        SolarTimes times = index.query(day, BERLIN_LATITUDE, BERLIN_LONGITUDE, 3600, 0, false);
+        assertEquals(1, index.getMisses());
+        assertEquals(1, index.size());
+        assertEquals(SolarMath.sunRise(day, BERLIN_LATITUDE, BERLIN_LONGITUDE, SolarInfo.ZENITH_CIVIL, 3600),
+                times.getSunRise());
+
+        index.query(day, BERLIN_LATITUDE, BERLIN_LONGITUDE, 3600, 0, true);
+        assertEquals(2, index.size());
+        SolarTimes cached = index.query(day, BERLIN_LATITUDE, BERLIN_LONGITUDE, 3600, 0, true);
+        assertEquals(1, index.getHits());
+        assertEquals(times, cached);
+
+        // dates outside the store are calculated
+        index.query(day + 366, BERLIN_LATITUDE, BERLIN_LONGITUDE, 3600, 0, true);
+        assertEquals(3, index.getMisses());
+    }
+
+    @org.junit.Test
+    public void testAntimeridian() throws Exception {
+        StationIndex index = new StationIndex(new SolarColumnStore(1, START_DAY, 31, SolarInfo.ZENITH_OFFICIAL),
+                SolarCalculator.WILLIAMS, 10);
+        index.add(new Station("east", -16.5, 179.99, 43200));
+
+        assertEquals(0, index.findNearest(-16.5, -179.98, 43200));
+        assertTrue(StationIndex.distance(-16.5, 179.99, -16.5, -179.98) < 4);
+
+        long day = START_DAY + 10;
+        SolarTimes times = index.query(day, -16.5, -179.98, 43200, 0, false);
+        assertEquals(1, index.getHits());
+        assertEquals(SolarMath.sunRise(day, -16.5, -179.98, SolarInfo.ZENITH_OFFICIAL, 43200), times.getSunRise(), 1);
+    }
+
+    @org.junit.Test
+    public void testPolar() throws Exception {
+        StationIndex index = new StationIndex(new SolarColumnStore(2, START_DAY, 366, SolarInfo.ZENITH_OFFICIAL),
+                SolarCalculator.WILLIAMS, 50);
+        index.add(new Station("longyearbyen", LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE, 3600));
+
+        // near the poles the search covers more columns
+        assertEquals(0, index.findNearest(LONGYEARBYEN_LATITUDE, LONGYEARBYEN_LONGITUDE + 1.5, 3600));
+
+        SolarTimes times = index.query(SolarMath.epochDay(2016, 6, 21), LONGYEARBYEN_LATITUDE + 0.1,
+                LONGYEARBYEN_LONGITUDE, 3600, 0, false);
+        assertTrue(times.isUpAllDay());
+        assertEquals(0, index.getHits());
+        assertEquals(1, index.getMisses());
+
+        // the station is near, so the location is not added
+        index.query(SolarMath.epochDay(2016, 6, 21), LONGYEARBYEN_LATITUDE + 0.1, LONGYEARBYEN_LONGITUDE, 3600, 0,
+                true);
+        assertEquals(1, index.size());
+    }
+}
@@ -0,0 +1,128 @@
+package com.arjankleene.astro;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.arjankleene.astro.SolarInfoTest.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the scheduling of transitions with a manual clock
+ */
+public class TransitionSchedulerTest {
+
+    private static final long START = SolarMath.epochDay(2016, 3, 9) * 86400L * 1000;
+
+    private final ManualAlarm alarm = new ManualAlarm();
+    private final List<SolarEvent> transitions = new ArrayList<SolarEvent>();
+    private final TransitionScheduler.Listener listener = new TransitionScheduler.Listener() {
+        @Override
+        public void onTransition(SolarEvent event) {
+            transitions.add(event);
+        }
+    };
+
+    @org.junit.Test
+    public void testTransitionsInOrder() throws Exception {
+        TransitionScheduler scheduler = new TransitionScheduler(alarm, listener, ENSCHEDE_LATITUDE,
+                ENSCHEDE_LONGITUDE, 3600);
+        alarm.now = START;
+        scheduler.start();
+
+        SolarEventIterator expected = new SolarEventIterator(ENSCHEDE_LATITUDE, ENSCHEDE_LONGITUDE, 3600,
+                START / 1000 + 1);
+        for (int i = 0; i < 16; i++) {
+            SolarEvent next = expected.next();
+            assertEquals(next, scheduler.getNextTransition());
+            assertEquals(next.getTime() * 1000, alarm.time);
+
+            alarm.fire();
+            assertEquals(next, transitions.get(i));
+        }
+
+        // a single alarm for each transition
+        assertEquals(17, alarm.sets);
+    }
+
+    @org.junit.Test
+    public void testEarlyAndLateAlarm() throws Exception {
+        TransitionScheduler scheduler = new TransitionScheduler(alarm, listener, ENSCHEDE_LATITUDE,
+                ENSCHEDE_LONGITUDE, 3600, SolarInfo.ZENITH_OFFICIAL);
+        alarm.now = START;
+        scheduler.start();
+        SolarEvent sunrise = scheduler.getNextTransition();
+
+        // early: nothing happens, the alarm is set again
+        alarm.now = sunrise.getTime() * 1000 - 500;
+        alarm.callback.run();
+        assertTrue(transitions.isEmpty());
+        assertEquals(sunrise.getTime() * 1000, alarm.time);
+
+        // a day late: sunrise and sunset are delivered
+        alarm.now = sunrise.getTime() * 1000 + 86400L * 1000;
+        alarm.callback.run();
+        assertEquals(3, transitions.size());
+        assertTrue(transitions.get(0).isRising());
+        assertFalse(transitions.get(1).isRising());
+        assertTrue(scheduler.getNextTransition().getTime() * 1000 > alarm.now);
+    }
+
+    @org.junit.Test
+    public void testNoTransitionBackInTime() throws Exception {
+        // the same zenith twice gives every event twice
+        TransitionScheduler scheduler = new TransitionScheduler(alarm, listener, ENSCHEDE_LATITUDE,
+                ENSCHEDE_LONGITUDE, 3600, SolarInfo.ZENITH_OFFICIAL, SolarInfo.ZENITH_OFFICIAL);
+        alarm.now = START;
+        scheduler.start();
+
+        alarm.now = START + 3 * 86400L * 1000;
+        alarm.callback.run();
+        assertEquals(6, transitions.size());
+        for (int i = 1; i < transitions.size(); i++) {
+            assertTrue(transitions.get(i).getTime() > transitions.get(i - 1).getTime());
+        }
+    }
+
+    @org.junit.Test
+    public void testStop() throws Exception {
+        TransitionScheduler scheduler = new TransitionScheduler(alarm, listener, ENSCHEDE_LATITUDE,
+                ENSCHEDE_LONGITUDE, 3600);
+        alarm.now = START;
+        scheduler.start();
+        scheduler.stop();
+
+        assertNull(alarm.callback);
+        assertNull(scheduler.getNextTransition());
+    }
+
+    private static class ManualAlarm implements TransitionAlarm {
+        long now;
+        long time;
+        Runnable callback;
+        int sets;
+
+        @Override
+        public long currentTimeMillis() {
+            return now;
+        }
+
+        @Override
+        public void set(long epochMillis, Runnable callback) {
+            this.time = epochMillis;
+            this.callback = callback;
+            sets++;
+        }
+
+        @Override
+        public void cancel() {
+            callback = null;
+        }
+
+        void fire() {
+            now = time;
+            Runnable pending = callback;
+            callback = null;
+            pending.run();
+        }
+    }
+}
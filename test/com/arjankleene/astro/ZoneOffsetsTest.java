@@ -0,0 +1,92 @@
+package com.arjankleene.astro;
+
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the cached timezone offsets
+ */
+public class ZoneOffsetsTest {
+
+    @org.junit.Test
+    public void testOffsetsMatchTimeZone() throws Exception {
+        Random random = new Random(42);
+        for (String id : new String[]{"Europe/Amsterdam", "Asia/Kolkata", "Australia/Adelaide", "America/St_Johns"}) {
+            TimeZone timeZone = TimeZone.getTimeZone(id);
+            ZoneOffsets zone = new ZoneOffsets(timeZone, 2015, 2017);
+
+            long from = SolarMath.epochDay(2014, 6, 1) * SolarMath.SECONDS_PER_DAY;
+            for (int i = 0; i < 10000; i++) {
+                long time = from + (long) (random.nextDouble() * 4 * 365 * SolarMath.SECONDS_PER_DAY);
+                assertEquals(id, timeZone.getOffset(time * 1000) / 1000, zone.getOffset(time));
+            }
+        }
+    }
+
+    @org.junit.Test
+    public void testSharedResolvers() throws Exception {
+        TimeZone amsterdam = TimeZone.getTimeZone("Europe/Amsterdam");
+        ZoneOffsets shared = ZoneOffsets.forZone(amsterdam);
+
+        // resolvers are kept for any number of zones
+        for (String id : TimeZone.getAvailableIDs()) {
+            ZoneOffsets.forZone(TimeZone.getTimeZone(id));
+        }
+        assertSame(shared, ZoneOffsets.forZone((TimeZone) amsterdam.clone()));
+
+        // years far from now are resolved when they are used
+        for (int year : new int[]{1985, 2016, 2090}) {
+            long summer = SolarMath.epochDay(year, 7, 1) * SolarMath.SECONDS_PER_DAY;
+            long winter = SolarMath.epochDay(year, 12, 1) * SolarMath.SECONDS_PER_DAY;
+            assertEquals(7200, shared.getOffset(summer));
+            assertEquals(3600, shared.getStandardOffset(summer));
+            assertEquals(3600, shared.getOffset(winter));
+        }
+    }
+
+    @org.junit.Test
+    public void testTransitions() throws Exception {
+        ZoneOffsets zone = new ZoneOffsets(TimeZone.getTimeZone("Europe/Amsterdam"), 2016, 2016);
+        // 2016-03-27 01:00 UTC
+        long summer = SolarMath.epochDay(2016, 3, 27) * SolarMath.SECONDS_PER_DAY + 3600;
+
+        assertEquals(2, zone.getTransitionCount());
+        assertEquals(3600, zone.getOffset(summer - 1));
+        assertEquals(7200, zone.getOffset(summer));
+        assertEquals(3600, zone.getStandardOffset(summer));
+    }
+
+    @org.junit.Test
+    public void testHalfHourZone() throws Exception {
+        TimeZone kolkata = TimeZone.getTimeZone("Asia/Kolkata");
+        GregorianCalendar date = new GregorianCalendar(kolkata);
+        date.clear();
+        date.set(2016, 2, 9);
+
+        assertEquals(19800, SolarInfo.utcOffset(date));
+        assertEquals(SolarMath.epochDay(2016, 3, 9), SolarInfo.epochDay(date));
+    }
+
+    @org.junit.Test
+    public void testToLocalTimes() throws Exception {
+        ZoneOffsets zone = new ZoneOffsets(TimeZone.getTimeZone("Europe/Amsterdam"), 2016, 2016);
+        SolarRange range = SolarInfo.computeRange(SolarInfoTest.ENSCHEDE_LATITUDE, SolarInfoTest.ENSCHEDE_LONGITUDE,
+                SolarMath.epochDay(2016, 1, 1), 366, SolarInfo.ZENITH_OFFICIAL, zone);
+
+        long[] local = new long[366];
+        zone.toLocalTimes(range.getSunRises(), 366, local);
+        for (int i = 0; i < 366; i++) {
+            assertEquals(zone.toLocalTime(range.getSunRises()[i]), local[i]);
+            // every sunrise is on its own local date
+            assertEquals(range.getStartDay() + i, SolarMath.floorDiv(local[i], SolarMath.SECONDS_PER_DAY));
+        }
+
+        long[] polar = {SolarMath.UP_ALL_DAY, SolarMath.DOWN_ALL_DAY};
+        zone.toLocalTimes(polar, 2, polar);
+        assertEquals(SolarMath.UP_ALL_DAY, polar[0]);
+        assertEquals(SolarMath.DOWN_ALL_DAY, polar[1]);
+    }
+}
@@ -0,0 +1,203 @@
+package com.arjankleene.astro.batch;
+
+import com.arjankleene.astro.SolarCalculator;
+import com.arjankleene.astro.SolarInfo;
+import com.arjankleene.astro.SolarMath;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the batch processing of station files
+ */
+public class BatchProcessorTest {
+
+    private static final int STATIONS = 200;
+
+    @org.junit.Rule
+    public org.junit.rules.TemporaryFolder folder = new org.junit.rules.TemporaryFolder();
+
+    @org.junit.Test
+    public void testCsv() throws Exception {
+        File input = input();
+        File output = folder.newFile("out.csv");
+        long startDay = SolarMath.epochDay(2016, 3, 9);
+        double[] zeniths = {SolarInfo.ZENITH_OFFICIAL, SolarInfo.ZENITH_CIVIL};
+
+        BatchProcessor.BatchReport report = new BatchProcessor(startDay, 3, zeniths,
+                BatchProcessor.Format.CSV, 4).process(input, output);
+
+        assertEquals(STATIONS, report.getStations());
+        assertEquals(STATIONS * 3 * 2, report.getResults());
+        assertEquals(1, report.getSkipped());
+        assertEquals(output.length(), report.getBytes() + "id,date,zenith,sunrise,sunset\n".length());
+
+        Set<String> ids = new HashSet<String>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(output), "UTF-8"));
+        try {
+            assertEquals("id,date,zenith,sunrise,sunset", reader.readLine());
+            String line;
+            int lines = 0;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                ids.add(line.split(",")[0]);
+                if (line.startsWith("enschede,2016-03-09,official,")) {
+                    assertEquals("enschede,2016-03-09,official,2016-03-09T06:59:21,2016-03-09T18:27:25", line);
+                }
+            }
+            assertEquals(STATIONS * 3 * 2, lines);
+        } finally {
+            reader.close();
+        }
+        assertEquals(STATIONS, ids.size());
+    }
+
+    @org.junit.Test
+    public void testBinary() throws Exception {
+        File input = input();
+        File output = folder.newFile("out.bin");
+        long startDay = SolarMath.epochDay(2016, 12, 21);
+        double[] zeniths = {SolarInfo.ZENITH_OFFICIAL};
+
+        new BatchProcessor(startDay, 2, zeniths, BatchProcessor.Format.BINARY, 3).process(input, output);
+
+        DataInputStream in = new DataInputStream(new FileInputStream(output));
+        try {
+            assertEquals(BatchProcessor.MAGIC, in.readInt());
+            assertEquals(BatchProcessor.VERSION, in.readShort());
+            in.readShort();
+            assertEquals(startDay, in.readLong());
+            assertEquals(2, in.readInt());
+            assertEquals(1, in.readInt());
+            assertEquals(SolarInfo.ZENITH_OFFICIAL, in.readDouble(), 0);
+
+            for (int station = 0; station < STATIONS; station++) {
+                byte[] id = new byte[in.readShort()];
+                in.readFully(id);
+
+                long[] events = new long[4];
+                for (int i = 0; i < events.length; i++) {
+                    events[i] = in.readLong();
+                }
+                if (new String(id, "UTF-8").equals("longyearbyen")) {
+                    assertEquals(SolarMath.DOWN_ALL_DAY, events[1]);
+                }
+            }
+            assertEquals(-1, in.read());
+        } finally {
+            in.close();
+        }
+    }
+
+    @org.junit.Test
+    public void testCalculationFailure() throws Exception {
+        SolarCalculator failing = new SolarCalculator() {
+            @Override
+            public String getName() {
+                return "failing";
+            }
+
+            @Override
+            public long sunRise(long epochDay, double latitude, double longitude, double zenith, int utcOffset) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public long sunSet(long epochDay, double latitude, double longitude, double zenith, int utcOffset) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void fillRange(double latitude, double longitude, long startDay, int days, double zenith,
+                                  int utcOffset, long[] sunrises, long[] sunsets, byte[] states) {
+                throw new IllegalStateException("failed");
+            }
+        };
+
+        BatchProcessor processor = new BatchProcessor(SolarMath.epochDay(2016, 3, 9), 1,
+                new double[]{SolarInfo.ZENITH_OFFICIAL}, BatchProcessor.Format.CSV, 2, failing);
+        try {
+            processor.process(input(), folder.newFile("out.csv"));
+            fail("Expected the failure of the calculations");
+        } catch (IllegalStateException e) {
+            assertEquals("failed", e.getMessage());
+        }
+    }
+
+    @org.junit.Test(expected = IOException.class)
+    public void testMissingOutputDirectory() throws Exception {
+        new BatchProcessor(SolarMath.epochDay(2016, 3, 9), 1, new double[]{SolarInfo.ZENITH_OFFICIAL},
+                BatchProcessor.Format.CSV, 1).process(input(), new File(folder.getRoot(), "missing/out.csv"));
+    }
+
+    @org.junit.Test
+    public void testQuotedIds() throws Exception {
+        File input = folder.newFile("quoted.csv");
+        Writer writer = new OutputStreamWriter(new FileOutputStream(input), "UTF-8");
+        try {
+            writer.write("\"Enschede, NL\",52.2406295,6.8854202,Europe/Amsterdam\n");
+            writer.write("\"the \"\"twente\"\" station\",52.2406295,6.8854202,Europe/Amsterdam\n");
+            writer.write("\"unclosed,52.2406295,6.8854202,Europe/Amsterdam\n");
+        } finally {
+            writer.close();
+        }
+        File output = folder.newFile("quoted.out.csv");
+
+        BatchProcessor.BatchReport report = new BatchProcessor(SolarMath.epochDay(2016, 3, 9), 1,
+                new double[]{SolarInfo.ZENITH_OFFICIAL}, BatchProcessor.Format.CSV, 1).process(input, output);
+        assertEquals(2, report.getStations());
+        assertEquals(1, report.getSkipped());
+
+        Set<String> lines = new HashSet<String>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(output), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        } finally {
+            reader.close();
+        }
+        assertTrue(lines.contains("\"Enschede, NL\",2016-03-09,official,2016-03-09T06:59:21,2016-03-09T18:27:25"));
+        assertTrue(lines.contains(
+                "\"the \"\"twente\"\" station\",2016-03-09,official,2016-03-09T06:59:21,2016-03-09T18:27:25"));
+    }
+
+    @org.junit.Test
+    public void testLocalTimes() throws Exception {
+        StringBuilder text = new StringBuilder();
+        LocalTimes.appendDate(text, SolarMath.epochDay(2000, 2, 29));
+        text.append(' ');
+        LocalTimes.appendDateTime(text, -1);
+
+        assertEquals("2000-02-29 1969-12-31T23:59:59", text.toString());
+    }
+
+    private File input() throws Exception {
+        File input = folder.newFile("stations.csv");
+        Writer writer = new OutputStreamWriter(new FileOutputStream(input), "UTF-8");
+        try {
+            writer.write("id,latitude,longitude,zone\n");
+            writer.write("enschede,52.2406295,6.8854202,Europe/Amsterdam\n");
+            writer.write("longyearbyen,78.2166667,15.6311393,Arctic/Longyearbyen\n");
+            writer.write("broken,north,6.8854202,Europe/Amsterdam\n");
+            for (int i = 2; i < STATIONS; i++) {
+                writer.write("station" + i + "," + (i % 120 - 60) + "," + (i * 1.7 - 170) + ",Asia/Kolkata\n");
+            }
+        } finally {
+            writer.close();
+        }
+        return input;
+    }
+}